@@ -1,6 +1,10 @@
 #!/usr/bin/env python3
+import base64
+import hashlib
+import itertools
 import json
 import requests
+import struct
 import sys
 import os
 from datetime import datetime
@@ -12,6 +16,13 @@ GITHUB_TOKEN = os.getenv("GITHUB_TOKEN", "")
 REPO_OWNER = os.getenv("REPO_OWNER", "MihailRis")
 REPO_NAME = os.getenv("REPO_NAME", "voxelcore")
 OUTPUT_FILE = os.getenv("OUTPUT_FILE", "releases.json")
+# Шаблоны зеркал через запятую, подстановки: {url}, {tag}, {name}
+ASSET_MIRRORS = [m.strip() for m in os.getenv("ASSET_MIRRORS", "").split(",") if m.strip()]
+# Манифесты блоков для дельта-обновлений: куда сохранять и откуда их будет брать лаунчер ({tag}, {name})
+BLOCK_MANIFEST_DIR = os.getenv("BLOCK_MANIFEST_DIR", "")
+BLOCK_MANIFEST_URL = os.getenv("BLOCK_MANIFEST_URL", "")
+BLOCK_MANIFEST_RELEASES = int(os.getenv("BLOCK_MANIFEST_RELEASES", "3"))
+BLOCK_SIZE = 16 * 1024
 
 if not GITHUB_TOKEN:
     print("[-] GITHUB_TOKEN не установлен в .env файле")
@@ -49,10 +60,61 @@ def fetch_releases():
         print(f"[-] Ошибка: {e}")
         sys.exit(1)
 
+def weak_checksum(block):
+    # rsync rolling checksum: a = сумма байт, b = сумма префиксных сумм, по 16 бит
+    a = sum(block) & 0xFFFF
+    b = sum(itertools.accumulate(block)) & 0xFFFF
+    return (b << 16) | a
+
+def build_block_manifest(url, name):
+    path = os.path.join(BLOCK_MANIFEST_DIR, name + ".blocks.json")
+
+    if os.path.exists(path):
+        return True
+
+    print(f"[*] Манифест блоков для {name}...")
+
+    try:
+        response = requests.get(url, timeout=60, stream=True)
+        response.raise_for_status()
+
+        whole = hashlib.sha256()
+        blocks = bytearray()
+        size = 0
+        pending = b""
+
+        for chunk in response.iter_content(chunk_size=1024 * 1024):
+            whole.update(chunk)
+            size += len(chunk)
+            pending += chunk
+
+            full = len(pending) - len(pending) % BLOCK_SIZE
+            for offset in range(0, full, BLOCK_SIZE):
+                block = pending[offset:offset + BLOCK_SIZE]
+                blocks += struct.pack(">I", weak_checksum(block)) + hashlib.sha256(block).digest()[:8]
+            pending = pending[full:]
+
+        manifest = {
+            "size": size,
+            "block_size": BLOCK_SIZE,
+            "sha256": whole.hexdigest(),
+            "blocks": base64.b64encode(bytes(blocks)).decode("ascii")
+        }
+
+        os.makedirs(BLOCK_MANIFEST_DIR, exist_ok=True)
+        with open(path, "w", encoding="utf-8") as f:
+            json.dump(manifest, f)
+
+        print(f"[+] {name}: {len(blocks) // 12} блоков")
+        return True
+    except Exception as e:
+        print(f"[-] Не удалось построить манифест {name}: {e}")
+        return False
+
 def parse_releases(releases):
     result = []
 
-    for release in releases:
+    for index, release in enumerate(releases):
         if release.get("draft"):
             print(f"[*] Пропускаем draft: {release['tag_name']}")
             continue
@@ -73,11 +135,20 @@ def parse_releases(releases):
 
             for platform, config in PLATFORMS.items():
                 if config["pattern"] in name and name.endswith(config["ext"]):
-                    filtered_assets.append({
+                    entry = {
                         "name": name,
                         "browser_download_url": url,
                         "size": size
-                    })
+                    }
+
+                    if ASSET_MIRRORS:
+                        entry["mirrors"] = [m.format(url=url, tag=tag_name, name=name) for m in ASSET_MIRRORS]
+
+                    if BLOCK_MANIFEST_DIR and BLOCK_MANIFEST_URL and index < BLOCK_MANIFEST_RELEASES:
+                        if build_block_manifest(url, name):
+                            entry["block_manifest"] = BLOCK_MANIFEST_URL.format(tag=tag_name, name=name)
+
+                    filtered_assets.append(entry)
                     print(f"[+] {tag_name}: {name} ({size} bytes)")
                     break
 
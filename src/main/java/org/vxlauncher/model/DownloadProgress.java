@@ -0,0 +1,77 @@
+//////////////////////////////////////////////////////
+//// @File model/DownloadProgress.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.model;
+
+import java.util.List;
+
+/**
+ * Снимок состояния загрузки, который раз в кадр уходит в UI.
+ */
+public class DownloadProgress
+{
+    private final long bytesDone;
+    private final long totalBytes;
+    private final double currentRate;
+    private final double averageRate;
+    private final List<Connection> connections;
+
+    public DownloadProgress(long bytesDone, long totalBytes, double currentRate, double averageRate, List<Connection> connections)
+    {
+        this.bytesDone = bytesDone;
+        this.totalBytes = totalBytes;
+        this.currentRate = currentRate;
+        this.averageRate = averageRate;
+        this.connections = connections;
+    }
+
+    public long getBytesDone() { return bytesDone; }
+    public long getTotalBytes() { return totalBytes; }
+
+    /** Скорость за последний кадр, байт/с */
+    public double getCurrentRate() { return currentRate; }
+
+    /** Сглаженная (EWMA) скорость, байт/с */
+    public double getAverageRate() { return averageRate; }
+
+    public List<Connection> getConnections() { return connections; }
+
+    public int getPercent()
+    {
+        if (totalBytes <= 0) return 0;
+        return (int) Math.min(100, bytesDone * 100 / totalBytes);
+    }
+
+    /**
+     * Оставшееся время в секундах по сглаженной скорости или -1, если оценить нельзя.
+     */
+    public long getEtaSeconds()
+    {
+        if (totalBytes <= 0 || averageRate < 1) return -1;
+        return (long) Math.ceil((totalBytes - bytesDone) / averageRate);
+    }
+
+    public static class Connection
+    {
+        private final long start;
+        private final long position;
+        private final long end;
+        private final double rate;
+
+        public Connection(long start, long position, long end, double rate)
+        {
+            this.start = start;
+            this.position = position;
+            this.end = end;
+            this.rate = rate;
+        }
+
+        public long getStart() { return start; }
+        public long getPosition() { return position; }
+        public long getEnd() { return end; }
+        public double getRate() { return rate; }
+    }
+}
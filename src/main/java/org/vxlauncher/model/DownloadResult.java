@@ -0,0 +1,35 @@
+//////////////////////////////////////////////////////
+//// @File model/DownloadResult.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.model;
+
+import java.nio.file.Path;
+
+public class DownloadResult
+{
+    private final Path file;
+    private final long size;
+    private final String sha256;
+
+    public DownloadResult(Path file, long size, String sha256)
+    {
+        this.file = file;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public Path getFile() { return file; }
+    public long getSize() { return size; }
+
+    /**
+     * SHA-256, посчитанный во время загрузки, или null, если его посчитать не удалось.
+     */
+    public String getSha256() { return sha256; }
+
+    public boolean hasSha256() {
+        return sha256 != null;
+    }
+}
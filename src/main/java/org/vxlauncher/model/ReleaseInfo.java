@@ -6,6 +6,10 @@
 
 package org.vxlauncher.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class ReleaseInfo
 {
     private final String version;
@@ -13,14 +17,27 @@ public class ReleaseInfo
     private final String sha256;
     private final long size;
     private final String fileName;
+    private final List<String> mirrorUrls;
+    private final String blockManifestUrl;
+
+    public ReleaseInfo(String version, String downloadUrl, String sha256, long size, String fileName) {
+        this(version, downloadUrl, sha256, size, fileName, Collections.emptyList());
+    }
+
+    public ReleaseInfo(String version, String downloadUrl, String sha256, long size, String fileName, List<String> mirrorUrls) {
+        this(version, downloadUrl, sha256, size, fileName, mirrorUrls, null);
+    }
 
-    public ReleaseInfo(String version, String downloadUrl, String sha256, long size, String fileName)
+    public ReleaseInfo(String version, String downloadUrl, String sha256, long size, String fileName,
+                       List<String> mirrorUrls, String blockManifestUrl)
     {
         this.version = version;
         this.downloadUrl = downloadUrl;
         this.sha256 = sha256;
         this.size = size;
         this.fileName = fileName;
+        this.mirrorUrls = List.copyOf(mirrorUrls);
+        this.blockManifestUrl = blockManifestUrl;
     }
 
     public String getVersion() { return version; }
@@ -28,6 +45,23 @@ public class ReleaseInfo
     public String getSha256() { return sha256; }
     public long getSize() { return size; }
     public String getFileName() { return fileName; }
+    public List<String> getMirrorUrls() { return mirrorUrls; }
+    public String getBlockManifestUrl() { return blockManifestUrl; }
+
+    /**
+     * Основной адрес и все зеркала, основной первым.
+     */
+    public List<String> getDownloadUrls()
+    {
+        List<String> urls = new ArrayList<>(1 + mirrorUrls.size());
+        urls.add(downloadUrl);
+
+        for (String url : mirrorUrls) {
+            if (!urls.contains(url)) urls.add(url);
+        }
+
+        return urls;
+    }
 
     @Override
     public String toString() {
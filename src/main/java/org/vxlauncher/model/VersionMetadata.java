@@ -0,0 +1,43 @@
+//////////////////////////////////////////////////////
+//// @File model/VersionMetadata.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.model;
+
+/**
+ * Метка завершённой установки (.version.json в папке версии). Пишется последней,
+ * перед переносом готовой папки на место, так что её наличие значит, что установка целая.
+ */
+public class VersionMetadata
+{
+    private final String version;
+    private final String fileName;
+    private final String sha256;
+    private final long installedAt;
+    private final String executable;
+
+    public VersionMetadata(String version, String fileName, String sha256, long installedAt) {
+        this(version, fileName, sha256, installedAt, null);
+    }
+
+    public VersionMetadata(String version, String fileName, String sha256, long installedAt, String executable)
+    {
+        this.version = version;
+        this.fileName = fileName;
+        this.sha256 = sha256;
+        this.installedAt = installedAt;
+        this.executable = executable;
+    }
+
+    public String getVersion() { return version; }
+    public String getFileName() { return fileName; }
+    public String getSha256() { return sha256; }
+    public long getInstalledAt() { return installedAt; }
+
+    /**
+     * Путь к исполняемому файлу относительно папки версии, найденный при установке, или null.
+     */
+    public String getExecutable() { return executable; }
+}
@@ -0,0 +1,367 @@
+//////////////////////////////////////////////////////
+//// @File service/ArtifactStore.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Скачанные файлы, адресуемые по SHA-256: blobs/ab/abcdef... Дополнительно помнит, какой
+ * хеш отдавал адрес при данном ETag, чтобы найти файл, когда хеш заранее неизвестен.
+ * Размер ограничен, при переполнении удаляются давно не использованные файлы.
+ * Файл кладётся жёсткой ссылкой на скачанный, так что место на диске не удваивается.
+ */
+public class ArtifactStore
+{
+    private static final Gson GSON = new Gson();
+
+    private final Path root;
+    private final Path index;
+    private volatile long maxBytes;
+
+    private final Map<String, Blob> blobs = new HashMap<>();
+    private final Map<String, Source> sources = new HashMap<>();
+
+    public ArtifactStore(Path root, long maxBytes)
+    {
+        this.root = root;
+        this.index = root.resolve("index.json");
+        this.maxBytes = maxBytes;
+
+        load();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    public synchronized long getSize() {
+        return blobs.values().stream().mapToLong(b -> b.size).sum();
+    }
+
+    public synchronized int getCount() {
+        return blobs.size();
+    }
+
+    /**
+     * Хеш, который адрес отдавал с тем же ETag (или Last-Modified и размером), либо null.
+     */
+    public synchronized String lookup(String url, String etag, String lastModified, long size)
+    {
+        Source source = sources.get(url);
+        if (source == null || source.size != size) {
+            return null;
+        }
+
+        boolean same = etag != null || source.etag != null
+                ? Objects.equals(etag, source.etag)
+                : lastModified != null && Objects.equals(lastModified, source.lastModified);
+
+        return same && blobs.containsKey(source.sha256) ? source.sha256 : null;
+    }
+
+    /**
+     * Скачивался ли что-то с этого адреса.
+     */
+    public synchronized boolean knows(String url) {
+        return sources.containsKey(url);
+    }
+
+    public synchronized boolean contains(String sha256) {
+        return sha256 != null && blobs.containsKey(sha256.toLowerCase());
+    }
+
+    /**
+     * Копирует файл из хранилища в destination, сверяя хеш по дороге.
+     * @return false, если файла нет или он повреждён (тогда он удаляется из хранилища)
+     */
+    public boolean restore(String sha256, Path destination) throws IOException
+    {
+        if (!contains(sha256)) return false;
+
+        String key = sha256.toLowerCase();
+        Path blob = blobPath(key);
+        Path tmp = destination.resolveSibling(destination.getFileName() + ".store");
+
+        Files.createDirectories(destination.toAbsolutePath().getParent());
+
+        try (InputStream in = new DigestInputStream(Files.newInputStream(blob), sha256Digest()))
+        {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+
+            String actual = FileService.toHex(((DigestInputStream) in).getMessageDigest().digest());
+            if (!actual.equals(key))
+            {
+                System.err.println("--> Файл " + key + " в хранилище повреждён, удаляем");
+                Files.deleteIfExists(tmp);
+                remove(key);
+                return false;
+            }
+        } catch (IOException e)
+        {
+            Files.deleteIfExists(tmp);
+            remove(key);
+            return false;
+        }
+
+        move(tmp, destination);
+        touch(key);
+        return true;
+    }
+
+    /**
+     * Кладёт скачанный файл в хранилище и запоминает, откуда он пришёл.
+     */
+    public void put(Path file, String sha256, String url, String etag, String lastModified)
+    {
+        try {
+            String key = sha256 != null ? sha256.toLowerCase() : hash(file);
+            long size = Files.size(file);
+            Path blob = blobPath(key);
+
+            if (size > maxBytes) return;
+
+            if (!contains(key))
+            {
+                Files.createDirectories(blob.getParent());
+
+                try {
+                    Files.createLink(blob, file);
+                } catch (FileAlreadyExistsException e) {
+                    // уже лежит от прошлого запуска
+                } catch (IOException | UnsupportedOperationException e) {
+                    Path tmp = blob.resolveSibling(key + ".tmp");
+                    Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    move(tmp, blob);
+                }
+            }
+
+            synchronized (this)
+            {
+                Blob entry = blobs.computeIfAbsent(key, k -> new Blob());
+                entry.size = size;
+                entry.lastAccess = System.currentTimeMillis();
+
+                if (url != null) {
+                    sources.put(url, new Source(key, size, etag, lastModified));
+                }
+            }
+
+            evict();
+        } catch (IOException e) {
+            System.err.println("--> Не удалось сохранить файл в хранилище: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет всё содержимое хранилища.
+     * @return сколько байт освобождено
+     */
+    public long clear()
+    {
+        List<String> keys;
+        long size;
+
+        synchronized (this)
+        {
+            keys = new ArrayList<>(blobs.keySet());
+            size = getSize();
+        }
+
+        for (String key : keys) {
+            remove(key);
+        }
+
+        return size;
+    }
+
+    /**
+     * Удаляет давно не использованные файлы, пока хранилище не уложится в maxBytes.
+     * @return сколько байт освобождено
+     */
+    public long trim(long maxBytes)
+    {
+        List<String> victims = new ArrayList<>();
+        long freed = 0;
+
+        synchronized (this)
+        {
+            long total = getSize();
+            if (total <= maxBytes)
+            {
+                save();
+                return 0;
+            }
+
+            List<Map.Entry<String, Blob>> lru = new ArrayList<>(blobs.entrySet());
+            lru.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+
+            for (Map.Entry<String, Blob> entry : lru)
+            {
+                if (total <= maxBytes) break;
+
+                victims.add(entry.getKey());
+                total -= entry.getValue().size;
+                freed += entry.getValue().size;
+            }
+        }
+
+        for (String key : victims)
+        {
+            System.out.println("--> Хранилище переполнено, удаляем " + key);
+            remove(key);
+        }
+
+        return freed;
+    }
+
+    private void evict() {
+        trim(maxBytes);
+    }
+
+    private void remove(String key)
+    {
+        try {
+            Files.deleteIfExists(blobPath(key));
+        } catch (IOException e) {
+            System.err.println("--> Не удалось удалить " + key + ": " + e.getMessage());
+        }
+
+        synchronized (this)
+        {
+            blobs.remove(key);
+            sources.values().removeIf(s -> s.sha256.equals(key));
+            save();
+        }
+    }
+
+    private synchronized void touch(String key)
+    {
+        Blob blob = blobs.get(key);
+        if (blob != null) {
+            blob.lastAccess = System.currentTimeMillis();
+        }
+
+        save();
+    }
+
+    private Path blobPath(String key) {
+        return root.resolve("blobs").resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private synchronized void load()
+    {
+        if (!Files.exists(index)) {
+            return;
+        }
+
+        try {
+            State state = GSON.fromJson(Files.readString(index, StandardCharsets.UTF_8), State.class);
+            if (state == null) return;
+
+            if (state.blobs != null)
+            {
+                // файл могли удалить руками - верим только тому, что есть на диске
+                state.blobs.forEach((key, blob) -> {
+                    if (Files.exists(blobPath(key))) blobs.put(key, blob);
+                });
+            }
+
+            if (state.sources != null) {
+                sources.putAll(state.sources);
+            }
+        } catch (Exception e) {
+            System.err.println("--> Индекс хранилища повреждён, начинаем заново: " + e.getMessage());
+        }
+    }
+
+    private synchronized void save()
+    {
+        try {
+            Files.createDirectories(root);
+
+            State state = new State();
+            state.blobs = blobs;
+            state.sources = sources;
+
+            Path tmp = index.resolveSibling(index.getFileName() + ".tmp");
+            Files.writeString(tmp, GSON.toJson(state), StandardCharsets.UTF_8);
+            move(tmp, index);
+        } catch (IOException e) {
+            System.err.println("--> Ошибка сохранения индекса хранилища: " + e.getMessage());
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException
+    {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String hash(Path file) throws IOException
+    {
+        MessageDigest digest = sha256Digest();
+
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return FileService.toHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Blob
+    {
+        long size;
+        long lastAccess;
+    }
+
+    private record Source(String sha256, long size, String etag, String lastModified)
+    {
+    }
+
+    private static class State
+    {
+        Map<String, Blob> blobs;
+        Map<String, Source> sources;
+    }
+}
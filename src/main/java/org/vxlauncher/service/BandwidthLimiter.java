@@ -0,0 +1,87 @@
+//////////////////////////////////////////////////////
+//// @File service/BandwidthLimiter.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+/**
+ * Token bucket на скорость приёма, общий для всех соединений. Полученные байты
+ * списываются сразу, даже в долг; пока долг не погашен, следующую порцию данных
+ * соединение не запрашивает. Ожидание - отложенный subscription.request, потоки не спят.
+ * Лимит с parent дополнительно ограничен лимитом родителя.
+ */
+public class BandwidthLimiter
+{
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    // запас на всплеск: 100 мс на полной скорости, но не меньше одной порции данных
+    private static final long BURST_NANOS = 100_000_000L;
+    private static final long MIN_BURST = 64 * 1024;
+
+    private final BandwidthLimiter parent;
+
+    private long bytesPerSecond;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond лимит, 0 - без ограничения
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        this(bytesPerSecond, null);
+    }
+
+    public BandwidthLimiter(long bytesPerSecond, BandwidthLimiter parent)
+    {
+        this.parent = parent;
+        setRate(bytesPerSecond);
+    }
+
+    public synchronized long getRate() {
+        return bytesPerSecond;
+    }
+
+    public synchronized void setRate(long bytesPerSecond)
+    {
+        refill(System.nanoTime());
+        this.bytesPerSecond = Math.max(0, bytesPerSecond);
+        tokens = Math.min(tokens, burst());
+    }
+
+    /**
+     * Списывает n байт.
+     * @return через сколько наносекунд можно принимать дальше, 0 - сразу
+     */
+    public long consume(long n)
+    {
+        long own = take(n);
+        long inherited = parent != null ? parent.consume(n) : 0;
+        return Math.max(own, inherited);
+    }
+
+    private synchronized long take(long n)
+    {
+        if (bytesPerSecond == 0) return 0;
+
+        long now = System.nanoTime();
+        refill(now);
+        tokens -= n;
+
+        return tokens >= 0 ? 0 : (long) (-tokens * NANOS_PER_SECOND / bytesPerSecond);
+    }
+
+    private void refill(long now)
+    {
+        if (bytesPerSecond > 0) {
+            tokens = Math.min(burst(), tokens + (double) (now - refilledAt) * bytesPerSecond / NANOS_PER_SECOND);
+        }
+
+        refilledAt = now;
+    }
+
+    private double burst() {
+        return Math.max(MIN_BURST, (double) bytesPerSecond * BURST_NANOS / NANOS_PER_SECOND);
+    }
+}
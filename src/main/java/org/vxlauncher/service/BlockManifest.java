@@ -0,0 +1,221 @@
+//////////////////////////////////////////////////////
+//// @File service/BlockManifest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Контрольные суммы блоков файла релиза, как в zsync. Формат (генерирует scripts/parse.py):
+ * {"size": N, "block_size": B, "sha256": "...", "blocks": base64}, где blocks - подряд для
+ * каждого полного блока 4 байта слабой суммы (rsync rolling, big-endian) и 8 байт SHA-256 блока.
+ * Неполный хвостовой блок в манифест не входит и всегда скачивается.
+ */
+public class BlockManifest
+{
+    private static final int ENTRY_SIZE = 12;
+
+    private final long size;
+    private final int blockSize;
+    private final String sha256;
+    private final int[] weak;
+    private final long[] strong;
+
+    BlockManifest(long size, int blockSize, String sha256, int[] weak, long[] strong)
+    {
+        this.size = size;
+        this.blockSize = blockSize;
+        this.sha256 = sha256;
+        this.weak = weak;
+        this.strong = strong;
+    }
+
+    public long getSize() { return size; }
+    public int getBlockSize() { return blockSize; }
+    public String getSha256() { return sha256; }
+
+    public static BlockManifest load(String manifestUrl) throws IOException
+    {
+        HttpURLConnection conn = (HttpURLConnection) new URL(manifestUrl).openConnection();
+        conn.setRequestProperty("User-Agent", "VXLauncher");
+        conn.setConnectTimeout(10000);
+        conn.setReadTimeout(10000);
+
+        int responseCode = conn.getResponseCode();
+        if (responseCode != 200) {
+            throw new IOException("Манифест блоков: код " + responseCode);
+        }
+
+        try (InputStream in = conn.getInputStream()) {
+            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    static BlockManifest parse(String json) throws IOException
+    {
+        try {
+            JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+
+            long size = root.get("size").getAsLong();
+            int blockSize = root.get("block_size").getAsInt();
+            String sha256 = root.has("sha256") ? root.get("sha256").getAsString() : "";
+            byte[] blocks = Base64.getDecoder().decode(root.get("blocks").getAsString());
+
+            if (blockSize <= 0 || blocks.length % ENTRY_SIZE != 0 || (long) blocks.length / ENTRY_SIZE != size / blockSize) {
+                throw new IOException("Манифест блоков не сходится с размером файла");
+            }
+
+            int count = blocks.length / ENTRY_SIZE;
+            int[] weak = new int[count];
+            long[] strong = new long[count];
+            ByteBuffer buffer = ByteBuffer.wrap(blocks);
+
+            for (int i = 0; i < count; i++)
+            {
+                weak[i] = buffer.getInt();
+                strong[i] = buffer.getLong();
+            }
+
+            return new BlockManifest(size, blockSize, sha256, weak, strong);
+        } catch (RuntimeException e) {
+            throw new IOException("Манифест блоков повреждён: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ищет блоки нового файла в старом скользящей суммой и копирует найденные в target
+     * на их места, отмечая в журнале. Недостающие блоки потом докачиваются диапазонами.
+     * @return сколько байт взято из source
+     */
+    public long seed(Path source, FileChannel target, DownloadJournal journal) throws IOException
+    {
+        Map<Integer, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < weak.length; i++) {
+            index.computeIfAbsent(weak[i], k -> new ArrayList<>(1)).add(i);
+        }
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ))
+        {
+            long length = in.size();
+            if (weak.length == 0 || length < blockSize || length > Integer.MAX_VALUE) {
+                return 0;
+            }
+
+            MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            MessageDigest digest = sha256();
+
+            int n = (int) length;
+            int bs = blockSize;
+            boolean[] found = new boolean[weak.length];
+            int remaining = weak.length;
+            long reused = 0;
+
+            int pos = 0;
+            int a = 0, b = 0;
+            boolean fresh = true;
+
+            while (remaining > 0 && pos + bs <= n)
+            {
+                if (fresh)
+                {
+                    a = 0;
+                    b = 0;
+                    for (int i = 0; i < bs; i++)
+                    {
+                        int x = map.get(pos + i) & 0xFF;
+                        a += x;
+                        b += (bs - i) * x;
+                    }
+                    a &= 0xFFFF;
+                    b &= 0xFFFF;
+                    fresh = false;
+                }
+
+                List<Integer> candidates = index.get((b << 16) | a);
+                boolean hit = false;
+
+                if (candidates != null)
+                {
+                    long hash = strongHash(digest, map, pos, bs);
+
+                    for (int block : candidates)
+                    {
+                        if (strong[block] != hash) continue;
+                        hit = true;
+
+                        if (!found[block])
+                        {
+                            found[block] = true;
+                            remaining--;
+
+                            long to = (long) block * bs;
+                            ByteBuffer data = map.slice(pos, bs);
+                            while (data.hasRemaining()) {
+                                to += target.write(data, to);
+                            }
+
+                            journal.commit((long) block * bs, (long) (block + 1) * bs);
+                            reused += bs;
+                        }
+                    }
+                }
+
+                if (hit)
+                {
+                    pos += bs;
+                    fresh = true;
+                }
+                else
+                {
+                    if (pos + bs >= n) break;
+
+                    int out = map.get(pos) & 0xFF;
+                    int next = map.get(pos + bs) & 0xFF;
+                    a = (a - out + next) & 0xFFFF;
+                    b = (b - bs * out + a) & 0xFFFF;
+                    pos++;
+                }
+            }
+
+            return reused;
+        }
+    }
+
+    private static long strongHash(MessageDigest digest, MappedByteBuffer map, int pos, int length)
+    {
+        digest.reset();
+        digest.update(map.slice(pos, length));
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static MessageDigest sha256()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+//////////////////////////////////////////////////////
+//// @File service/BufferPool.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Общий для всех загрузок пул direct буферов одного размера.
+ * Очередь на массиве, чтобы acquire/release ничего не аллоцировали.
+ */
+public final class BufferPool
+{
+    public static final int BUFFER_SIZE = 1024 * 1024; // 1 MB
+    private static final int MAX_POOLED = 16;
+
+    private static final BufferPool SHARED = new BufferPool(BUFFER_SIZE, MAX_POOLED);
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+
+    public BufferPool(int bufferSize, int maxPooled)
+    {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Чистый буфер из пула; если пул пуст - новый. Вернуть через release().
+     */
+    public ByteBuffer acquire()
+    {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Возвращает буфер в пул. Лишние буферы сверх лимита отдаются GC.
+     */
+    public void release(ByteBuffer buffer)
+    {
+        if (buffer != null && buffer.isDirect() && buffer.capacity() == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+}
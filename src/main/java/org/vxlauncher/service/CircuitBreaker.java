@@ -0,0 +1,134 @@
+//////////////////////////////////////////////////////
+//// @File service/CircuitBreaker.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Предохранитель на хост: после серии подряд идущих сбоев запросы к хосту сразу
+ * отклоняются, а через паузу пропускается один пробный запрос.
+ */
+public class CircuitBreaker
+{
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long OPEN_MILLIS = 30_000;
+
+    private static final Map<String, CircuitBreaker> HOSTS = new ConcurrentHashMap<>();
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String host;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    private CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    public static CircuitBreaker forHost(String host) {
+        return HOSTS.computeIfAbsent(host == null ? "" : host, CircuitBreaker::new);
+    }
+
+    /**
+     * @return false, если хост сейчас считается недоступным и запрос делать не нужно
+     */
+    public synchronized boolean tryAcquire()
+    {
+        switch (state)
+        {
+            case CLOSED:
+                return true;
+
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < OPEN_MILLIS) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+
+            default:
+                // в HALF_OPEN уже идёт пробный запрос
+                return false;
+        }
+    }
+
+    /**
+     * Отклонит ли tryAcquire() запрос прямо сейчас. Состояние не меняет.
+     */
+    public synchronized boolean isOpen()
+    {
+        return state == State.HALF_OPEN
+                || state == State.OPEN && System.currentTimeMillis() - openedAt < OPEN_MILLIS;
+    }
+
+    public synchronized void onSuccess()
+    {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void onFailure()
+    {
+        failures++;
+
+        if (state == State.HALF_OPEN || failures >= FAILURE_THRESHOLD)
+        {
+            if (state != State.OPEN) {
+                System.out.println("--> Хост " + host + " недоступен, запросы приостановлены на " + OPEN_MILLIS / 1000 + " с");
+            }
+
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Запрос прерван (пауза, отмена, обрыв зависшего соединения) и ничего не сказал о хосте.
+     * Если это был пробный запрос, предохранитель возвращается в OPEN с прежним временем,
+     * и следующий запрос снова станет пробным - иначе HALF_OPEN держался бы до конца работы.
+     */
+    public synchronized void onAbandoned()
+    {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Идёт пробный запрос: хост, возможно, уже поднялся, и отказ стоит повторить.
+     */
+    public synchronized boolean isProbing() {
+        return state == State.HALF_OPEN;
+    }
+
+    public static class OpenException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean probing;
+
+        public OpenException(String host) {
+            this(host, false);
+        }
+
+        public OpenException(String host, boolean probing)
+        {
+            super("Хост " + host + " временно недоступен");
+            this.probing = probing;
+        }
+
+        public boolean isProbing() {
+            return probing;
+        }
+    }
+}
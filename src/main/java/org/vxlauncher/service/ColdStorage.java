@@ -0,0 +1,354 @@
+//////////////////////////////////////////////////////
+//// @File service/ColdStorage.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.vxlauncher.model.VersionMetadata;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Давно не запускавшиеся версии упаковываются в один архив .cold.zip внутри папки версии,
+ * рядом остаются только метка и список файлов - версия по-прежнему считается установленной.
+ * При запуске архив распаковывается параллельно обратно. И упаковка, и распаковка собирают
+ * новую папку рядом и подменяют ею старую переименованием, так что сбой не портит версию,
+ * а прерванная распаковка продолжается с последней готовой записи. Файлы, общие с другими
+ * версиями через жёсткие ссылки (см. {@link Deduplicator}), не упаковываются: места они почти
+ * не занимают, а распакованная копия больше не была бы общей.
+ */
+public class ColdStorage
+{
+    public static final String ARCHIVE = ".cold.zip";
+
+    /** Через сколько дней без запуска версия упаковывается, 0 - никогда */
+    public static final Duration IDLE = Duration.ofDays(Long.getLong("vxlauncher.cold.days", 30));
+
+    private static final String LAUNCHES_FILE = ".launches.json";
+    private static final String CHECKPOINT_FILE = ".unzip.log";
+
+    // архив, сжавшийся хуже, не стоит распаковки при каждом запуске
+    private static final double MIN_SAVING = 0.1;
+
+    private static final Gson GSON = new Gson();
+
+    private final FileService fileService;
+    private final Path versionsDir;
+
+    // версия -> время последнего запуска
+    private final Map<String, Long> launches = new HashMap<>();
+
+    private final Map<String, Lock> locks = new ConcurrentHashMap<>();
+
+    public ColdStorage(FileService fileService, Path versionsDir)
+    {
+        this.fileService = fileService;
+        this.versionsDir = versionsDir;
+
+        load();
+    }
+
+    public static boolean isCold(Path versionDir) {
+        return Files.exists(versionDir.resolve(ARCHIVE));
+    }
+
+    public boolean isCold(String version) {
+        return isCold(versionsDir.resolve(version));
+    }
+
+    /**
+     * Блокировка папки версии. Её держат упаковка, распаковка, запуск до появления процесса
+     * и удаление, так что проверка "версия свободна", сделанная под ней, не устаревает
+     * до конца операции.
+     */
+    public Lock lock(String version) {
+        return locks.computeIfAbsent(version, v -> new ReentrantLock());
+    }
+
+    public synchronized void recordLaunch(String version)
+    {
+        launches.put(version, System.currentTimeMillis());
+        save();
+    }
+
+    /**
+     * Последний запуск, а для ни разу не запускавшейся версии - время установки.
+     */
+    public synchronized long getLastLaunch(String version)
+    {
+        Long launched = launches.get(version);
+        if (launched != null) return launched;
+
+        Path dir = versionsDir.resolve(version);
+        Path marker = dir.resolve(InstallationService.METADATA_FILE);
+
+        try {
+            return Files.getLastModifiedTime(Files.exists(marker) ? marker : dir).toMillis();
+        } catch (IOException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Упаковывает версии, не запускавшиеся дольше idle.
+     * @param skip версии, которые трогать нельзя (запущены, устанавливаются)
+     * @return сколько байт освобождено
+     */
+    public long compact(Duration idle, Predicate<String> skip)
+    {
+        if (idle.isZero()) return 0;
+
+        long threshold = System.currentTimeMillis() - idle.toMillis();
+        List<String> versions = new ArrayList<>();
+
+        try (Stream<Path> dirs = Files.list(versionsDir))
+        {
+            dirs.filter(Files::isDirectory)
+                    .map(d -> d.getFileName().toString())
+                    .filter(v -> !v.startsWith("."))
+                    .forEach(versions::add);
+        } catch (IOException e) {
+            System.err.println("--> Не удалось прочитать папку версий: " + e.getMessage());
+            return 0;
+        }
+
+        long freed = 0;
+
+        for (String version : versions)
+        {
+            Lock lock = lock(version);
+            lock.lock();
+
+            try {
+                // запуск мог начаться, пока упаковывались предыдущие версии
+                if (isCold(version) || skip.test(version) || getLastLaunch(version) > threshold) continue;
+
+                freed += pack(version);
+            } catch (IOException e) {
+                System.err.println("--> Не удалось упаковать версию " + version + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return freed;
+    }
+
+    /**
+     * Сжимает файлы версии в .cold.zip. Служебные файлы верхнего уровня (метка, список файлов)
+     * и общие с другими версиями файлы остаются как есть.
+     * @return на сколько байт уменьшилась папка, 0 - версия не упакована
+     */
+    public long pack(String version) throws IOException
+    {
+        Lock lock = lock(version);
+        lock.lock();
+
+        try {
+            return packLocked(version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long packLocked(String version) throws IOException
+    {
+        Path dir = versionsDir.resolve(version);
+        if (!Files.isDirectory(dir) || isCold(dir)) return 0;
+
+        Path staging = versionsDir.resolve("." + version + ".cold");
+        fileService.deleteDirectory(staging);
+        Files.createDirectories(staging);
+
+        Path archive = staging.resolve(ARCHIVE);
+        long original = 0;
+
+        try (Stream<Path> files = Files.walk(dir);
+             ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive), 1024 * 1024)))
+        {
+            // упаковка идёт в фоне, а распаковка на пути запуска - быстрое сжатие почти не хуже по размеру
+            zip.setLevel(Deflater.BEST_SPEED);
+
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator)
+            {
+                Path relative = dir.relativize(file);
+
+                if (relative.getNameCount() == 1 && relative.toString().startsWith("."))
+                {
+                    Files.copy(file, staging.resolve(relative.toString()), StandardCopyOption.COPY_ATTRIBUTES);
+                    continue;
+                }
+
+                if (Deduplicator.linkCount(file) > 1)
+                {
+                    Path shared = staging.resolve(relative.toString());
+                    Files.createDirectories(shared.getParent());
+                    Files.createLink(shared, file);
+                    continue;
+                }
+
+                ZipEntry entry = new ZipEntry(relative.toString().replace(java.io.File.separatorChar, '/'));
+                entry.setLastModifiedTime(Files.getLastModifiedTime(file));
+
+                zip.putNextEntry(entry);
+                Files.copy(file, zip);
+                zip.closeEntry();
+
+                original += Files.size(file);
+            }
+        } catch (IOException e)
+        {
+            fileService.deleteDirectory(staging);
+            throw e;
+        }
+
+        long packed = Files.size(archive);
+
+        if (packed > original * (1 - MIN_SAVING))
+        {
+            System.out.println("--> Версия " + version + " почти не сжимается, оставляем как есть");
+            fileService.deleteDirectory(staging);
+            return 0;
+        }
+
+        fileService.replaceDirectory(staging, dir);
+        System.out.println("--> Версия " + version + " упакована: " + original / (1024 * 1024) + " MB -> " + packed / (1024 * 1024) + " MB");
+
+        return original - packed;
+    }
+
+    /**
+     * Распаковывает упакованную версию обратно. Ничего не делает, если версия не упакована.
+     */
+    public void rehydrate(String version, ProgressListener progress) throws IOException
+    {
+        Lock lock = lock(version);
+        lock.lock();
+
+        try {
+            rehydrateLocked(version, progress);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rehydrateLocked(String version, ProgressListener progress) throws IOException
+    {
+        Path dir = versionsDir.resolve(version);
+        Path archive = dir.resolve(ARCHIVE);
+        if (!Files.exists(archive)) return;
+
+        Path staging = versionsDir.resolve("." + version + ".rehydrate");
+        Files.createDirectories(staging);
+
+        ZipExtractor.extract(archive, staging, staging.resolve(CHECKPOINT_FILE), progress);
+        Files.delete(staging.resolve(CHECKPOINT_FILE));
+
+        // рядом с архивом - служебные файлы и общие с другими версиями, их ссылки переносятся как есть
+        try (Stream<Path> files = Files.walk(dir))
+        {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator)
+            {
+                if (file.equals(archive)) continue;
+
+                Path relative = dir.relativize(file);
+                Path target = staging.resolve(relative.toString());
+
+                if (relative.getNameCount() == 1)
+                {
+                    Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                    continue;
+                }
+
+                Files.createDirectories(target.getParent());
+                Files.deleteIfExists(target);
+                Files.createLink(target, file);
+            }
+        }
+
+        restoreAttributes(staging);
+        fileService.replaceDirectory(staging, dir);
+    }
+
+    /**
+     * Бит исполнения в zip не хранится, а mtime распакованных файлов новые - пересохраняем
+     * список файлов, чтобы быстрая проверка не перехешировала всю версию.
+     */
+    private void restoreAttributes(Path dir) throws IOException
+    {
+        Path marker = dir.resolve(InstallationService.METADATA_FILE);
+
+        if (Files.exists(marker))
+        {
+            VersionMetadata metadata = GSON.fromJson(Files.readString(marker, StandardCharsets.UTF_8), VersionMetadata.class);
+
+            if (metadata != null && metadata.getExecutable() != null) {
+                fileService.setExecutable(dir.resolve(metadata.getExecutable()));
+            }
+        }
+
+        InstallManifest manifest = InstallManifest.load(dir);
+        if (manifest == null) return;
+
+        for (InstallManifest.Entry entry : manifest.getFiles())
+        {
+            if (Files.exists(dir.resolve(entry.getPath()))) {
+                manifest.refresh(dir, entry);
+            }
+        }
+
+        manifest.save(dir);
+    }
+
+    private void load()
+    {
+        Path file = versionsDir.resolve(LAUNCHES_FILE);
+        if (!Files.exists(file)) return;
+
+        try {
+            Map<String, Long> saved = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Long>>(){}.getType());
+
+            if (saved != null) {
+                launches.putAll(saved);
+            }
+        } catch (Exception e) {
+            System.err.println("--> Файл запусков повреждён: " + e.getMessage());
+        }
+    }
+
+    private void save()
+    {
+        try {
+            Files.createDirectories(versionsDir);
+
+            Path tmp = versionsDir.resolve(LAUNCHES_FILE + ".tmp");
+            Files.writeString(tmp, GSON.toJson(launches), StandardCharsets.UTF_8);
+            Files.move(tmp, versionsDir.resolve(LAUNCHES_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("--> Не удалось сохранить время запуска: " + e.getMessage());
+        }
+    }
+}
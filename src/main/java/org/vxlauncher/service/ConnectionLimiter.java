@@ -0,0 +1,150 @@
+//////////////////////////////////////////////////////
+//// @File service/ConnectionLimiter.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Общий на все загрузки лимит одновременных соединений: всего и на один хост.
+ * Запросы сверх лимита ждут без блокировки потоков; освободившееся место достаётся
+ * загрузке с наибольшим приоритетом, при равном - той, что ждёт дольше.
+ */
+public class ConnectionLimiter
+{
+    private final int maxTotal;
+    private final int maxPerHost;
+
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final Map<String, Integer> perHost = new HashMap<>();
+    private int total;
+    private long sequence;
+
+    public ConnectionLimiter(int maxTotal, int maxPerHost)
+    {
+        this.maxTotal = maxTotal;
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * @return future с действием, которое нужно вызвать, когда соединение больше не нужно
+     */
+    public CompletableFuture<Runnable> acquire(String host, DownloadControl control)
+    {
+        Waiter waiter = new Waiter(host == null ? "" : host, control, sequence());
+
+        synchronized (this) {
+            waiters.add(waiter);
+        }
+
+        control.register(waiter.future, waiter.future::completeExceptionally);
+        grant();
+
+        return waiter.future;
+    }
+
+    private synchronized long sequence() {
+        return sequence++;
+    }
+
+    private void release(String host)
+    {
+        synchronized (this)
+        {
+            total--;
+            perHost.merge(host, -1, Integer::sum);
+        }
+
+        grant();
+    }
+
+    private void grant()
+    {
+        List<Waiter> granted = new ArrayList<>();
+
+        synchronized (this)
+        {
+            waiters.removeIf(w -> w.future.isDone());
+
+            while (total < maxTotal)
+            {
+                Waiter next = null;
+
+                for (Waiter w : waiters)
+                {
+                    if (perHost.getOrDefault(w.host, 0) >= maxPerHost) continue;
+
+                    if (next == null || w.priority() > next.priority()
+                            || w.priority() == next.priority() && w.sequence < next.sequence) {
+                        next = w;
+                    }
+                }
+
+                if (next == null) break;
+
+                waiters.remove(next);
+                total++;
+                perHost.merge(next.host, 1, Integer::sum);
+                granted.add(next);
+            }
+        }
+
+        for (Waiter w : granted)
+        {
+            Runnable permit = new Permit(w.host);
+
+            // ожидание могли отменить, пока место выделялось
+            if (!w.future.complete(permit)) {
+                permit.run();
+            }
+        }
+    }
+
+    private final class Permit implements Runnable
+    {
+        private final String host;
+        private boolean released;
+
+        Permit(String host) {
+            this.host = host;
+        }
+
+        @Override
+        public void run()
+        {
+            synchronized (this)
+            {
+                if (released) return;
+                released = true;
+            }
+
+            release(host);
+        }
+    }
+
+    private static final class Waiter
+    {
+        final String host;
+        final DownloadControl control;
+        final long sequence;
+        final CompletableFuture<Runnable> future = new CompletableFuture<>();
+
+        Waiter(String host, DownloadControl control, long sequence)
+        {
+            this.host = host;
+            this.control = control;
+            this.sequence = sequence;
+        }
+
+        int priority() {
+            return control.getPriority();
+        }
+    }
+}
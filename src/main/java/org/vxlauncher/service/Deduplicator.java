@@ -0,0 +1,366 @@
+//////////////////////////////////////////////////////
+//// @File service/Deduplicator.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.vxlauncher.model.OSType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Одинаковые файлы разных версий хранятся один раз. Кандидаты находятся без чтения файлов -
+ * по размеру и CRC из списков файлов версий (.files.json), совпадение подтверждается SHA-256,
+ * хеши запоминаются в versions/.dedup.json. Копия заменяется reflink-клоном, где ФС его умеет
+ * (cp --reflink / cp -c): клон копируется при записи сам. Жёсткая ссылка такой защиты не даёт -
+ * правка на месте попадёт во все версии, поэтому она только по явному
+ * -Dvxlauncher.dedup.hardlinks=true, только в полном проходе и не на Windows, а перед запуском
+ * версии её ссылки разрываются копией ({@link #unshare}).
+ */
+public final class Deduplicator
+{
+    public static final String INDEX_FILE = ".dedup.json";
+
+    // мелкие файлы не стоят хеширования
+    private static final long MIN_SIZE = 16 * 1024;
+
+    private static final Gson GSON = new Gson();
+
+    /** Жёсткие ссылки там, где reflink нет; число ссылок на файл на Windows не узнать */
+    public static final boolean HARDLINKS = Boolean.getBoolean("vxlauncher.dedup.hardlinks")
+            && OSType.detectCurrent() != OSType.WINDOWS;
+
+    private static volatile boolean reflinkSupported = OSType.detectCurrent() != OSType.WINDOWS;
+
+    private final Path versionsDir;
+    private final boolean hardlinks;
+    private final Map<String, Hash> index = new HashMap<>();
+
+    /**
+     * @param linked      сколько копий заменено ссылками в этом проходе
+     * @param reclaimed   сколько байт освобождено
+     * @param alreadyShared сколько копий уже были общими с прошлых проходов
+     */
+    public record Report(int linked, long reclaimed, int alreadyShared)
+    {
+    }
+
+    private Deduplicator(Path versionsDir, boolean hardlinks)
+    {
+        this.versionsDir = versionsDir;
+        this.hardlinks = hardlinks;
+        load();
+    }
+
+    /**
+     * Проход по всем установленным версиям.
+     */
+    public static Report deduplicate(Path versionsDir) throws IOException {
+        return new Deduplicator(versionsDir, HARDLINKS).run(null);
+    }
+
+    /**
+     * Заменяет ссылками только файлы dir, совпавшие с файлами установленных версий: режим
+     * для только что распакованной установки, пока она ещё не перенесена на место. Только reflink.
+     */
+    public static Report deduplicate(Path versionsDir, Path dir) throws IOException {
+        return new Deduplicator(versionsDir, false).run(dir);
+    }
+
+    /**
+     * Заменяет файлы dir, у которых есть другие жёсткие ссылки, собственными копиями.
+     * @return сколько ссылок разорвано
+     */
+    public static int unshare(Path dir) throws IOException
+    {
+        int unshared = 0;
+
+        try (Stream<Path> files = Files.walk(dir))
+        {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator)
+            {
+                if (linkCount(file) < 2) continue;
+
+                Path tmp = file.resolveSibling(file.getFileName() + ".unshare");
+                Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                move(tmp, file);
+
+                unshared++;
+            }
+        }
+
+        return unshared;
+    }
+
+    /**
+     * @return число жёстких ссылок на файл, 1 - если ФС его не сообщает
+     */
+    static int linkCount(Path file)
+    {
+        try {
+            return (Integer) Files.getAttribute(file, "unix:nlink");
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return 1;
+        }
+    }
+
+    private Report run(Path only) throws IOException
+    {
+        if (!hardlinks && !reflinkSupported) {
+            // связывать нечем - хешировать незачем
+            return new Report(0, 0, 0);
+        }
+
+        // размер:CRC -> файлы, пришедшие из разных версий
+        Map<String, List<Path>> groups = new LinkedHashMap<>();
+
+        List<Path> dirs = new ArrayList<>();
+        try (Stream<Path> list = Files.list(versionsDir))
+        {
+            list.filter(Files::isDirectory)
+                    .filter(d -> !d.getFileName().toString().startsWith("."))
+                    .forEach(dirs::add);
+        }
+
+        if (only != null) {
+            dirs.add(only);
+        }
+
+        for (Path dir : dirs)
+        {
+            InstallManifest manifest = InstallManifest.load(dir);
+            if (manifest == null) continue;
+
+            for (InstallManifest.Entry entry : manifest.getFiles())
+            {
+                if (entry.getSize() < MIN_SIZE) continue;
+
+                groups.computeIfAbsent(entry.getSize() + ":" + entry.getCrc(), k -> new ArrayList<>())
+                        .add(ZipExtractor.resolve(dir.toAbsolutePath().normalize(), entry.getPath()));
+            }
+        }
+
+        int linked = 0;
+        int shared = 0;
+        long reclaimed = 0;
+
+        for (List<Path> group : groups.values())
+        {
+            if (group.size() < 2) continue;
+            if (only != null && group.stream().noneMatch(p -> p.startsWith(only.toAbsolutePath().normalize()))) continue;
+
+            // SHA-256 -> первый встреченный файл, он и остаётся
+            Map<String, Path> originals = new HashMap<>();
+
+            for (Path file : group)
+            {
+                String sha256 = hash(file);
+                if (sha256 == null) continue;
+
+                Path original = originals.putIfAbsent(sha256, file);
+                if (original == null) continue;
+
+                if (only != null && !file.startsWith(only.toAbsolutePath().normalize())) continue;
+
+                if (sameFile(original, file))
+                {
+                    shared++;
+                    continue;
+                }
+
+                long size = Files.size(file);
+                String clone = link(original, file);
+
+                if (clone != null)
+                {
+                    linked++;
+                    reclaimed += size;
+
+                    index.put(key(file), new Hash(size, Files.getLastModifiedTime(file).toMillis(), sha256,
+                            clone.isEmpty() ? null : clone));
+                }
+            }
+        }
+
+        save();
+        return new Report(linked, reclaimed, shared);
+    }
+
+    /**
+     * Заменяет copy клоном или жёсткой ссылкой на original через временный файл и переименование.
+     * @return ключ original для клона, пустая строка для жёсткой ссылки, null - не удалось
+     */
+    private String link(Path original, Path copy)
+    {
+        Path tmp = copy.resolveSibling(copy.getFileName() + ".dedup");
+
+        try {
+            Files.deleteIfExists(tmp);
+
+            boolean cloned = reflink(original, tmp);
+            if (!cloned)
+            {
+                if (!hardlinks) return null;
+                Files.createLink(tmp, original);
+            }
+
+            move(tmp, copy);
+            return cloned ? key(original) : "";
+        } catch (IOException | UnsupportedOperationException e)
+        {
+            System.err.println("--> Не удалось связать " + copy + ": " + e.getMessage());
+
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Клон с копированием при записи. Java его не умеет, поэтому через cp; после первой
+     * неудачи больше не пробуем - ФС версий одна.
+     */
+    private static boolean reflink(Path original, Path target)
+    {
+        if (!reflinkSupported) return false;
+
+        List<String> command = OSType.detectCurrent() == OSType.MACOS
+                ? List.of("cp", "-c", original.toString(), target.toString())
+                : List.of("cp", "--reflink=always", original.toString(), target.toString());
+
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            process.getInputStream().transferTo(java.io.OutputStream.nullOutputStream());
+
+            if (process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                return true;
+            }
+
+            process.destroy();
+        } catch (IOException e) {
+            // cp нет
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        reflinkSupported = false;
+
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException ignored) {
+        }
+
+        return false;
+    }
+
+    /**
+     * Уже общие: одна жёсткая ссылка или клон, сделанный прошлым проходом и с тех пор не менявшийся.
+     */
+    private boolean sameFile(Path original, Path copy)
+    {
+        try {
+            if (Files.isSameFile(original, copy)) return true;
+
+            Hash cached = index.get(key(copy));
+            return cached != null && key(original).equals(cached.cloneOf);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * SHA-256 из индекса, если размер и mtime не изменились, иначе считается заново.
+     */
+    private String hash(Path file)
+    {
+        try {
+            if (!Files.isRegularFile(file)) return null;
+
+            String key = key(file);
+            long size = Files.size(file);
+            long mtime = Files.getLastModifiedTime(file).toMillis();
+
+            Hash cached = index.get(key);
+            if (cached != null && cached.size == size && cached.mtime == mtime) {
+                return cached.sha256;
+            }
+
+            String sha256 = new FileService().calculateSHA256(file);
+            index.put(key, new Hash(size, mtime, sha256, null));
+            return sha256;
+        } catch (Exception e) {
+            System.err.println("--> Не удалось прочитать " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void load()
+    {
+        Path file = versionsDir.resolve(INDEX_FILE);
+        if (!Files.exists(file)) return;
+
+        try {
+            Map<String, Hash> saved = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Hash>>(){}.getType());
+
+            if (saved != null) {
+                index.putAll(saved);
+            }
+        } catch (Exception e) {
+            System.err.println("--> Индекс одинаковых файлов повреждён, начинаем заново: " + e.getMessage());
+        }
+    }
+
+    private void save()
+    {
+        // записи удалённых версий больше не нужны
+        index.keySet().removeIf(key -> !Files.exists(versionsDir.resolve(key)));
+
+        Path file = versionsDir.resolve(INDEX_FILE);
+        Path tmp = versionsDir.resolve(INDEX_FILE + ".tmp");
+
+        try {
+            Files.writeString(tmp, GSON.toJson(index), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("--> Не удалось сохранить индекс одинаковых файлов: " + e.getMessage());
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException
+    {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String key(Path file) {
+        return versionsDir.toAbsolutePath().normalize().relativize(file).toString().replace('\\', '/');
+    }
+
+    // cloneOf - ключ файла, клоном которого этот сделан
+    private record Hash(long size, long mtime, String sha256, String cloneOf)
+    {
+    }
+}
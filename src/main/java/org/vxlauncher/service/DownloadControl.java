@@ -0,0 +1,83 @@
+//////////////////////////////////////////////////////
+//// @File service/DownloadControl.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Управление одной загрузкой снаружи: приоритет в очереди соединений, класс скорости и остановка.
+ * Остановка обрывает все открытые ответы и ожидания, новые запросы не уходят.
+ */
+public class DownloadControl
+{
+    private final Map<CompletionStage<?>, Consumer<? super CancellationException>> active = new ConcurrentHashMap<>();
+
+    private volatile int priority;
+    private volatile boolean background;
+    private volatile CancellationException stopped;
+
+    public DownloadControl() {
+        this(0);
+    }
+
+    public DownloadControl(int priority) {
+        this.priority = priority;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Фоновая загрузка делит общий лимит скорости и вдобавок ограничена фоновым.
+     */
+    public boolean isBackground() {
+        return background;
+    }
+
+    public void setBackground(boolean background) {
+        this.background = background;
+    }
+
+    public boolean isStopped() {
+        return stopped != null;
+    }
+
+    public CancellationException getStopReason() {
+        return stopped;
+    }
+
+    public void stop(String reason)
+    {
+        if (stopped != null) return;
+
+        stopped = new CancellationException(reason);
+        active.forEach((stage, abort) -> abort.accept(stopped));
+    }
+
+    /**
+     * Следит за операцией до её завершения; при остановке зовёт abort.
+     */
+    void register(CompletionStage<?> stage, Consumer<? super CancellationException> abort)
+    {
+        active.put(stage, abort);
+        stage.whenComplete((v, e) -> active.remove(stage));
+
+        CancellationException reason = stopped;
+        if (reason != null) {
+            abort.accept(reason);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+//////////////////////////////////////////////////////
+//// @File service/DownloadJournal.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Журнал докачки: какие диапазоны .part файла уже записаны на диск.
+ * Хранится рядом с .part файлом и сверяется с ETag/Last-Modified при перезапуске.
+ */
+public class DownloadJournal
+{
+    private static final Gson GSON = new Gson();
+
+    private final Path file;
+    private final String url;
+    private final long size;
+    private final String etag;
+    private final String lastModified;
+
+    private final TreeMap<Long, Long> committed = new TreeMap<>();
+    private long committedBytes;
+
+    private DownloadJournal(Path file, String url, long size, String etag, String lastModified)
+    {
+        this.file = file;
+        this.url = url;
+        this.size = size;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Загружает журнал, если он описывает тот же файл на сервере, иначе создаёт пустой.
+     */
+    public static DownloadJournal open(Path file, String url, long size, String etag, String lastModified)
+    {
+        DownloadJournal journal = new DownloadJournal(file, url, size, etag, lastModified);
+
+        if (!Files.exists(file)) {
+            return journal;
+        }
+
+        try {
+            State state = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), State.class);
+
+            if (state != null && journal.matches(state) && state.ranges != null)
+            {
+                for (long[] range : state.ranges) {
+                    if (range.length == 2) {
+                        journal.commit(range[0], range[1]);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("--> Журнал докачки повреждён, начинаем заново: " + e.getMessage());
+        }
+
+        return journal;
+    }
+
+    private boolean matches(State state)
+    {
+        if (state.size != size || !Objects.equals(state.url, url)) {
+            return false;
+        }
+
+        if (etag != null || state.etag != null) {
+            return Objects.equals(etag, state.etag);
+        }
+
+        return Objects.equals(lastModified, state.lastModified);
+    }
+
+    public long getSize() { return size; }
+
+    public synchronized long getCommittedBytes() {
+        return committedBytes;
+    }
+
+    public synchronized boolean isComplete() {
+        return committedBytes >= size;
+    }
+
+    /**
+     * Конец непрерывно записанного начала файла.
+     */
+    public synchronized long contiguousPrefix()
+    {
+        Map.Entry<Long, Long> first = committed.firstEntry();
+        return first != null && first.getKey() == 0 ? first.getValue() : 0;
+    }
+
+    /**
+     * Отмечает диапазон [start, end) как записанный. Только в памяти, на диск - через checkpoint().
+     */
+    public synchronized void commit(long start, long end)
+    {
+        start = Math.max(0, start);
+        end = Math.min(size, end);
+        if (end <= start) return;
+
+        Map.Entry<Long, Long> prev = committed.floorEntry(start);
+        if (prev != null && prev.getValue() >= start)
+        {
+            start = prev.getKey();
+            end = Math.max(end, prev.getValue());
+            committed.remove(prev.getKey());
+            committedBytes -= prev.getValue() - prev.getKey();
+        }
+
+        Map.Entry<Long, Long> next = committed.ceilingEntry(start);
+        while (next != null && next.getKey() <= end)
+        {
+            end = Math.max(end, next.getValue());
+            committed.remove(next.getKey());
+            committedBytes -= next.getValue() - next.getKey();
+            next = committed.ceilingEntry(start);
+        }
+
+        committed.put(start, end);
+        committedBytes += end - start;
+    }
+
+    /**
+     * Незаписанные диапазоны внутри [from, to) в виде пар {start, endExclusive}.
+     */
+    public synchronized List<long[]> missing(long from, long to)
+    {
+        List<long[]> result = new ArrayList<>();
+        long cursor = from;
+
+        Map.Entry<Long, Long> first = committed.floorEntry(from);
+        if (first != null && first.getValue() > cursor) {
+            cursor = first.getValue();
+        }
+
+        for (Map.Entry<Long, Long> range : committed.tailMap(from, true).entrySet())
+        {
+            if (range.getKey() >= to) break;
+
+            if (range.getKey() > cursor) {
+                result.add(new long[]{cursor, range.getKey()});
+            }
+
+            cursor = Math.max(cursor, range.getValue());
+        }
+
+        if (cursor < to) {
+            result.add(new long[]{cursor, to});
+        }
+
+        return result;
+    }
+
+    /**
+     * Сбрасывает данные файла на диск и только после этого сохраняет журнал,
+     * чтобы в журнале никогда не оказался диапазон, которого нет на диске.
+     */
+    public synchronized void checkpoint(FileChannel data) throws IOException
+    {
+        data.force(false);
+
+        State state = new State();
+        state.url = url;
+        state.size = size;
+        state.etag = etag;
+        state.lastModified = lastModified;
+        state.ranges = new ArrayList<>();
+        committed.forEach((s, e) -> state.ranges.add(new long[]{s, e}));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, GSON.toJson(state), StandardCharsets.UTF_8);
+
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public synchronized void reset()
+    {
+        committed.clear();
+        committedBytes = 0;
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static class State
+    {
+        String url;
+        long size;
+        String etag;
+        String lastModified;
+        List<long[]> ranges;
+    }
+}
@@ -0,0 +1,291 @@
+//////////////////////////////////////////////////////
+//// @File service/DownloadQueue.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.ReleaseInfo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Очередь установок поверх DownloadService. Одновременно идут не больше maxActive установок,
+ * соединения между ними делит общий лимит DownloadService. Выбранная версия обгоняет остальные,
+ * установку можно поставить на паузу (.part и журнал остаются для докачки) или отменить
+ * (соединения рвутся, недокачанные файлы удаляются).
+ */
+public class DownloadQueue
+{
+    public enum State { QUEUED, RUNNING, PAUSED, DONE, FAILED, CANCELLED }
+
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r ->
+    {
+        Thread t = new Thread(r, "install-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final InstallationService installer;
+    private final int maxActive;
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private int active;
+    private int topPriority;
+
+    public DownloadQueue(InstallationService installer, int maxActive)
+    {
+        this.installer = installer;
+        this.maxActive = Math.max(1, maxActive);
+    }
+
+    /**
+     * Ставит версию в очередь первой. Если версия уже в очереди, возвращает её задачу.
+     */
+    public synchronized Job submit(ReleaseInfo release, Consumer<String> logger, ProgressListener progress)
+    {
+        Job job = jobs.get(release.getVersion());
+
+        if (job == null)
+        {
+            job = new Job(release, logger, progress);
+            jobs.put(release.getVersion(), job);
+            logger.accept("Версия " + release.getVersion() + " поставлена в очередь");
+        }
+
+        prioritize(release.getVersion());
+        return job;
+    }
+
+    public synchronized Job get(String version) {
+        return jobs.get(version);
+    }
+
+    /**
+     * Поднимает версию в начало очереди, в том числе уже идущую загрузку.
+     */
+    public synchronized void prioritize(String version)
+    {
+        Job job = jobs.get(version);
+        if (job == null) return;
+
+        job.priority = ++topPriority;
+
+        DownloadControl control = job.control;
+        if (control != null) {
+            control.setPriority(job.priority);
+        }
+
+        schedule();
+    }
+
+    /**
+     * Переводит загрузку версии в фоновый класс скорости или обратно.
+     */
+    public synchronized void setBackground(String version, boolean background)
+    {
+        Job job = jobs.get(version);
+        if (job == null) return;
+
+        job.background = background;
+
+        DownloadControl control = job.control;
+        if (control != null) {
+            control.setBackground(background);
+        }
+    }
+
+    public synchronized void pause(String version)
+    {
+        Job job = jobs.get(version);
+        if (job == null) return;
+
+        if (job.state == State.QUEUED) {
+            job.setState(State.PAUSED);
+        } else if (job.state == State.RUNNING) {
+            job.setState(State.PAUSED);
+            job.control.stop("Пауза");
+        }
+    }
+
+    public synchronized void resume(String version)
+    {
+        Job job = jobs.get(version);
+        if (job == null || job.state != State.PAUSED) return;
+
+        // поток прерванной загрузки ещё может завершаться; тогда его подхватит finished()
+        if (job.control == null)
+        {
+            job.setState(State.QUEUED);
+            schedule();
+        }
+        else {
+            job.resumeRequested = true;
+        }
+    }
+
+    public synchronized void cancel(String version)
+    {
+        Job job = jobs.get(version);
+        if (job == null) return;
+
+        State previous = job.state;
+        job.setState(State.CANCELLED);
+
+        if (job.control != null) {
+            job.control.stop("Установка отменена");
+        } else if (previous == State.QUEUED || previous == State.PAUSED) {
+            finish(job, null);
+        }
+    }
+
+    private void schedule()
+    {
+        while (active < maxActive)
+        {
+            Job next = null;
+
+            for (Job job : jobs.values())
+            {
+                if (job.state != State.QUEUED) continue;
+
+                if (next == null || job.priority > next.priority) {
+                    next = job;
+                }
+            }
+
+            if (next == null) return;
+
+            start(next);
+        }
+    }
+
+    private void start(Job job)
+    {
+        active++;
+        job.setState(State.RUNNING);
+        job.control = new DownloadControl(job.priority);
+        job.control.setBackground(job.background);
+
+        DownloadControl control = job.control;
+
+        WORKERS.execute(() ->
+        {
+            Throwable error = null;
+
+            try {
+                installer.install(job.release, job.logger, job.progress, control);
+            } catch (Throwable t) {
+                error = t;
+            }
+
+            finished(job, error);
+        });
+    }
+
+    private synchronized void finished(Job job, Throwable error)
+    {
+        active--;
+        job.control = null;
+
+        // пауза, пришедшая после загрузки (распаковка, проверка), установку уже не останавливает
+        if (job.state == State.PAUSED && error != null)
+        {
+            job.logger.accept("Загрузка " + job.getVersion() + " приостановлена");
+
+            if (job.resumeRequested)
+            {
+                job.resumeRequested = false;
+                job.setState(State.QUEUED);
+            }
+        }
+        else {
+            finish(job, error);
+        }
+
+        schedule();
+    }
+
+    private void finish(Job job, Throwable error)
+    {
+        jobs.remove(job.getVersion());
+
+        if (job.state == State.CANCELLED)
+        {
+            try {
+                installer.discard(job.release);
+            } catch (Exception e) {
+                System.err.println("--> Не удалось удалить недокачанные файлы: " + e.getMessage());
+            }
+
+            job.result.completeExceptionally(new CancellationException("Установка отменена"));
+        }
+        else if (error != null)
+        {
+            job.setState(State.FAILED);
+            job.result.completeExceptionally(error);
+        }
+        else
+        {
+            job.setState(State.DONE);
+            job.result.complete(null);
+        }
+    }
+
+    /**
+     * Установка одной версии в очереди.
+     */
+    public static final class Job
+    {
+        private final ReleaseInfo release;
+        private final Consumer<String> logger;
+        private final ProgressListener progress;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private volatile State state = State.QUEUED;
+        private volatile Consumer<State> stateListener = s -> {};
+        private DownloadControl control;
+        private int priority;
+        private boolean background;
+        private boolean resumeRequested;
+
+        private Job(ReleaseInfo release, Consumer<String> logger, ProgressListener progress)
+        {
+            this.release = release;
+            this.logger = logger;
+            this.progress = progress;
+        }
+
+        public String getVersion() { return release.getVersion(); }
+        public ReleaseInfo getRelease() { return release; }
+        public State getState() { return state; }
+
+        /**
+         * Завершается успешно, с ошибкой установки или с CancellationException при отмене.
+         * На паузе не завершается.
+         */
+        public CompletableFuture<Void> getResult() {
+            return result;
+        }
+
+        /**
+         * Вызывается из потоков очереди при каждой смене состояния.
+         */
+        public void onStateChanged(Consumer<State> listener) {
+            this.stateListener = listener;
+        }
+
+        private void setState(State state)
+        {
+            this.state = state;
+            stateListener.accept(state);
+        }
+    }
+}
@@ -6,295 +6,1213 @@
 
 package org.vxlauncher.service;
 
+import org.vxlauncher.AppInfo;
+import org.vxlauncher.model.DownloadResult;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.function.IntConsumer;
 
 public class DownloadService
 {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
     private static final HttpClient CLIENT = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(10))
             .followRedirects(HttpClient.Redirect.NORMAL)
-            .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+            .executor(EXECUTOR)
             .build();
 
-    private static final int BUFFER_SIZE = 256 * 1024; // 256 KB
+    // пробный запрос проходит редиректы сам, чтобы узнать конечный адрес
+    private static final HttpClient PROBE_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(EXECUTOR)
+            .build();
+
+    // копирование из хранилища, хеширование seed и догоняющий хеш читают диск - не на потоках HttpClient и не в общем пуле
+    private static final ExecutorService IO = Executors.newCachedThreadPool(r ->
+    {
+        Thread t = new Thread(r, "download-io");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final int MAX_REDIRECTS = 5;
+    private static final long MIRROR_PROBE_GRACE_MS = 3000;
+
     private static final long CHUNK_SIZE = 10 * 1024 * 1024; // 10 MB
-    private static final int MAX_RETRIES = 5;
+    private static final RetryPolicy RETRY = new RetryPolicy(5, 1000, 16_000, 60_000);
+    private static final long CHECKPOINT_BYTES = 4 * 1024 * 1024; // 4 MB
+    private static final long COMMIT_BYTES = 1024 * 1024; // 1 MB
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String JOURNAL_SUFFIX = ".part.json";
+
+    // ждём только заголовки ответа; за телом следит watchdog
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final int MAX_CONNECTIONS = 16;
+    private static final int MAX_CONNECTIONS_PER_HOST = 8;
+
+    // лимиты скорости в КБ/с, 0 - без ограничения: -Dvxlauncher.bandwidth=2048
+    private static final long BANDWIDTH_KB = Long.getLong("vxlauncher.bandwidth", 0);
+    private static final long BACKGROUND_BANDWIDTH_KB = Long.getLong("vxlauncher.bandwidth.background", 0);
+
+    private static final long STORE_MAX_BYTES = 1024L * 1024 * 1024; // 1 GB
+
+    private final StallWatchdog watchdog;
+    private final ConnectionLimiter limiter;
+    private final BandwidthLimiter bandwidth;
+    private final BandwidthLimiter backgroundBandwidth;
+    private final ArtifactStore store;
+
+    public DownloadService() {
+        this(StallWatchdog.defaults(), new ConnectionLimiter(MAX_CONNECTIONS, MAX_CONNECTIONS_PER_HOST),
+                new BandwidthLimiter(BANDWIDTH_KB * 1024),
+                new ArtifactStore(Paths.get(AppInfo.getAppDir(), "store"), STORE_MAX_BYTES));
+    }
+
+    /**
+     * @param store хранилище скачанных файлов или null, чтобы всегда качать из сети
+     */
+    public DownloadService(StallWatchdog watchdog, ConnectionLimiter limiter, BandwidthLimiter bandwidth, ArtifactStore store)
+    {
+        this.watchdog = watchdog;
+        this.limiter = limiter;
+        this.bandwidth = bandwidth;
+        this.backgroundBandwidth = new BandwidthLimiter(BACKGROUND_BANDWIDTH_KB * 1024, bandwidth);
+        this.store = store;
+    }
+
+    public ArtifactStore getArtifactStore() {
+        return store;
+    }
+
+    /**
+     * Общий лимит скорости всех загрузок в байтах в секунду, 0 - без ограничения.
+     */
+    public void setBandwidthLimit(long bytesPerSecond) {
+        bandwidth.setRate(bytesPerSecond);
+    }
+
+    /**
+     * Лимит для загрузок с control.isBackground(); действует внутри общего.
+     */
+    public void setBackgroundBandwidthLimit(long bytesPerSecond) {
+        backgroundBandwidth.setRate(bytesPerSecond);
+    }
+
+    private BandwidthLimiter bandwidth(DownloadControl control) {
+        return control.isBackground() ? backgroundBandwidth : bandwidth;
+    }
 
-    public CompletableFuture<Void> downloadAsync(
+    public CompletableFuture<DownloadResult> downloadAsync(
             String urlStr,
             Path destination,
-            Consumer<Integer> progressCallback)
+            IntConsumer percentCallback)
+    {
+        return downloadAsync(urlStr, destination, ProgressListener.percent(percentCallback));
+    }
+
+    public CompletableFuture<DownloadResult> downloadAsync(
+            String urlStr,
+            Path destination,
+            ProgressListener progress)
+    {
+        return downloadAsync(List.of(urlStr), destination, progress);
+    }
+
+    /**
+     * Качает файл со всех доступных зеркал сразу: urls.get(0) - основной адрес,
+     * остальные - копии того же файла на других хостах.
+     */
+    public CompletableFuture<DownloadResult> downloadAsync(
+            List<String> urls,
+            Path destination,
+            ProgressListener progress)
+    {
+        return downloadAsync(urls, destination, progress, new DownloadControl());
+    }
+
+    /**
+     * То же, но с внешним управлением: приоритет соединений и остановка через control.
+     */
+    public CompletableFuture<DownloadResult> downloadAsync(
+            List<String> urls,
+            Path destination,
+            ProgressListener progress,
+            DownloadControl control)
     {
-        return CompletableFuture
-                .supplyAsync(() -> fetchMetadata(urlStr))
-                .thenCompose(meta ->
+        return downloadAsync(urls, destination, progress, control, null, null, null);
+    }
+
+    /**
+     * Полная форма. Файл с известным sha256 сначала ищется в локальном хранилище, до сети.
+     * Дельта-загрузка: блоки из manifest, которые нашлись в seed (файл уже установленной версии),
+     * копируются локально, по сети идут только остальные. Без манифеста - обычная загрузка.
+     */
+    public CompletableFuture<DownloadResult> downloadAsync(
+            List<String> urls,
+            Path destination,
+            ProgressListener progress,
+            DownloadControl control,
+            String sha256,
+            BlockManifest manifest,
+            Path seed)
+    {
+        return CompletableFuture.supplyAsync(() -> restore(sha256, destination), IO)
+                .thenCompose(restored -> restored != null
+                        ? CompletableFuture.completedFuture(restored)
+                        : fetch(verifiable(urls, sha256, manifest), destination, progress, control, manifest, seed));
+    }
+
+    /**
+     * Зеркала одного размера могут отдавать разные файлы, и куски с разных хостов смешаются
+     * незаметно. Поэтому зеркала участвуют, только если итог будет сверен с известным хешем,
+     * иначе всё качается с основного адреса.
+     */
+    static List<String> verifiable(List<String> urls, String sha256, BlockManifest manifest)
+    {
+        boolean hashed = sha256 != null && !sha256.isEmpty()
+                || manifest != null && manifest.getSha256() != null && !manifest.getSha256().isEmpty();
+
+        if (hashed || urls.size() <= 1) {
+            return urls;
+        }
+
+        System.out.println("--> Хеш файла неизвестен, зеркала не используются");
+        return urls.subList(0, 1);
+    }
+
+    private CompletableFuture<DownloadResult> fetch(
+            List<String> urls,
+            Path destination,
+            ProgressListener progress,
+            DownloadControl control,
+            BlockManifest manifest,
+            Path seed)
+    {
+        Path part = partFile(destination);
+        StreamingDigest digest = new StreamingDigest();
+
+        // при докачке, дельте и файле из хранилища начало файла уже есть локально - пробный ответ без тела
+        boolean local = Files.exists(journalFile(destination)) || manifest != null && seed != null
+                || store != null && store.knows(urls.get(0));
+
+        return probe(urls, control, !local)
+                .thenComposeAsync(mirrors ->
                 {
-                    if (meta.supportsRanges && meta.size > CHUNK_SIZE * 2)
+                    DownloadMetadata meta = mirrors.getMirrors().get(0).getMeta();
+
+                    // тот же файл по тому же адресу уже скачивали - сеть больше не нужна
+                    DownloadResult restored = store != null
+                            ? restore(store.lookup(urls.get(0), meta.etag, meta.lastModified, meta.size), destination)
+                            : null;
+
+                    if (restored != null)
+                    {
+                        mirrors.discardProbe();
+                        return CompletableFuture.completedFuture(restored);
+                    }
+
+                    DownloadJournal journal = meta.isResumable()
+                            ? DownloadJournal.open(journalFile(destination), urls.get(0), meta.size, meta.etag, meta.lastModified)
+                            : null;
+
+                    if (journal != null && journal.getCommittedBytes() == 0 && manifest != null && seed != null
+                            && manifest.getSize() == meta.size)
+                    {
+                        seed(manifest, seed, part, journal, progress);
+                    }
+
+                    if (journal != null && journal.contiguousPrefix() > 0) {
+                        // начало файла уже скачано - тело пробного ответа не пригодится
+                        mirrors.discardProbe();
+                    }
+
+                    // с дырами в журнале - только диапазонами, иначе потоком перекачается всё после первой дыры
+                    CompletableFuture<Void> transfer;
+                    if (journal != null && (meta.size > CHUNK_SIZE * 2 || journal.getCommittedBytes() > journal.contiguousPrefix()))
                     {
-                        return downloadMultiThreaded(urlStr, destination, meta.size, progressCallback);
+                        transfer = downloadMultiThreaded(mirrors, part, meta, journal, digest, progress, control);
                     }
                     else
                     {
-                        return downloadSingleThreaded(urlStr, destination, meta.size, progressCallback);
+                        transfer = downloadSingleThreaded(mirrors, part, meta, journal, digest, progress, control);
                     }
+
+                    return transfer
+                            .whenComplete((v, e) -> mirrors.discardProbe())
+                            .thenApply(v -> complete(part, destination, journal, digest))
+                            .thenApply(result ->
+                            {
+                                if (store != null) {
+                                    store.put(result.getFile(), result.getSha256(), urls.get(0), meta.etag, meta.lastModified);
+                                }
+
+                                return result;
+                            });
+                }, IO)
+                .whenComplete((r, e) ->
+                {
+                    if (e != null) {
+                        // следующая попытка спросит сервер заново
+                        urls.forEach(MetadataCache::invalidate);
+                    }
+
+                    MirrorSet.saveHealth();
                 })
                 .exceptionally(e -> {
                     throw new RuntimeException("Download failed: " + e.getMessage(), e);
                 });
     }
 
+    /**
+     * Узнаёт размер, ETag и поддержку диапазонов у всех адресов параллельно первым же GET
+     * с Range: bytes=0-, без отдельного HEAD. Тело ответа основного адреса ждёт, пока его не
+     * заберёт загрузка; ответы зеркал закрываются сразу после заголовков. Свежие ответы берутся из кеша.
+     * Без withBody запрашивается один байт, и тело пробного ответа не используется.
+     */
+    private CompletableFuture<MirrorSet> probe(List<String> urls, DownloadControl control, boolean withBody)
+    {
+        List<DownloadMetadata> cached = new ArrayList<>(urls.size());
+
+        for (String url : urls) {
+            cached.add(MetadataCache.get(url));
+        }
+
+        if (cached.get(0) != null) {
+            return CompletableFuture.completedFuture(mirrorSet(urls, cached, null));
+        }
+
+        List<CompletableFuture<ProbeResponse>> probes = new ArrayList<>(urls.size());
+        List<CompletableFuture<ProbeResponse>> answers = new ArrayList<>(urls.size());
+
+        for (int i = 0; i < urls.size(); i++)
+        {
+            String url = urls.get(i);
+            CompletableFuture<ProbeResponse> probe = RETRY.run(() -> probe(url, URI.create(url), control, withBody, 0));
+            CompletableFuture<ProbeResponse> answer = probe.exceptionally(e -> null);
+
+            if (i > 0) {
+                // медленное зеркало не задерживает начало загрузки
+                answer = answer.completeOnTimeout(null, MIRROR_PROBE_GRACE_MS, TimeUnit.MILLISECONDS);
+            }
+
+            probes.add(probe);
+            answers.add(answer);
+        }
+
+        return CompletableFuture.allOf(answers.toArray(new CompletableFuture<?>[0])).thenApplyAsync(v ->
+        {
+            List<DownloadMetadata> metas = new ArrayList<>(urls.size());
+            ProbeResponse first = null;
+
+            for (CompletableFuture<ProbeResponse> answer : answers)
+            {
+                ProbeResponse response = answer.join();
+                metas.add(response != null ? response.getMeta() : null);
+
+                if (first == null) first = response;
+            }
+
+            if (first == null) {
+                // никто не ответил - ошибка основного адреса
+                probes.get(0).join();
+            }
+
+            ProbeResponse reference = withBody ? first : null;
+            for (CompletableFuture<ProbeResponse> probe : probes)
+            {
+                probe.thenAccept(response -> {
+                    if (response != reference) response.discard();
+                });
+            }
+
+            return mirrorSet(urls, metas, reference);
+        }, EXECUTOR);
+    }
+
+    /**
+     * Оставляет адреса, которые отдают тот же файл, что и первый ответивший.
+     */
+    private static MirrorSet mirrorSet(List<String> urls, List<DownloadMetadata> metas, ProbeResponse probe)
+    {
+        List<MirrorSet.Mirror> mirrors = new ArrayList<>();
+        DownloadMetadata reference = null;
+
+        for (int i = 0; i < urls.size(); i++)
+        {
+            DownloadMetadata meta = metas.get(i);
+            if (meta == null) continue;
+
+            if (reference == null) {
+                reference = meta;
+            } else if (meta.size != reference.size || !meta.isResumable() || !reference.isResumable()) {
+                continue;
+            }
+
+            mirrors.add(new MirrorSet.Mirror(urls.get(i), meta));
+        }
+
+        if (urls.size() > 1) {
+            System.out.println("--> Зеркала: " + mirrors + " из " + urls.size());
+        }
+
+        return new MirrorSet(mirrors, probe);
+    }
+
+    /**
+     * Один пробный запрос; редиректы проходятся вручную, конечный адрес попадает в кеш.
+     */
+    private CompletableFuture<ProbeResponse> probe(String url, URI target, DownloadControl control, boolean withBody, int redirects)
+    {
+        HttpRequest request = HttpRequest.newBuilder()
+                .GET()
+                .uri(target)
+                .header("User-Agent", "VXLauncher/1.2")
+                .header("Range", withBody ? "bytes=0-" : "bytes=0-0")
+                .timeout(RESPONSE_TIMEOUT)
+                .build();
+
+        CompletableFuture<ProbeResponse> result = new CompletableFuture<>();
+
+        send(PROBE_CLIENT, request, control, info ->
+                {
+                    if (info.statusCode() != 200 && info.statusCode() != 206) {
+                        return HttpResponse.BodySubscribers.replacing(null);
+                    }
+
+                    DownloadMetadata meta = DownloadMetadata.of(info, target);
+                    MetadataCache.put(url, meta);
+
+                    ProbeResponse response = new ProbeResponse(info, meta);
+                    result.complete(response);
+                    return response;
+                })
+                .whenComplete((resp, e) ->
+                {
+                    ProbeResponse response = result.getNow(null);
+
+                    if (response != null)
+                    {
+                        if (e != null) response.getResponse().completeExceptionally(e);
+                        else response.getResponse().complete(resp);
+                        return;
+                    }
+
+                    if (e != null)
+                    {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+
+                    Optional<String> location = resp.headers().firstValue("location");
+
+                    if (isRedirect(resp.statusCode()) && location.isPresent() && redirects < MAX_REDIRECTS)
+                    {
+                        probe(url, target.resolve(location.get()), control, withBody, redirects + 1).whenComplete((r, err) ->
+                        {
+                            if (err != null) result.completeExceptionally(err);
+                            else result.complete(r);
+                        });
+                    }
+                    else {
+                        result.completeExceptionally(HttpStatusException.of(resp));
+                    }
+                });
+
+        return result;
+    }
+
+    /**
+     * Достаёт файл из хранилища на место destination.
+     * @return результат или null, если файла в хранилище нет
+     */
+    private DownloadResult restore(String sha256, Path destination)
+    {
+        if (store == null || sha256 == null || sha256.isEmpty()) {
+            return null;
+        }
+
+        try {
+            if (!store.restore(sha256, destination)) {
+                return null;
+            }
+
+            Files.deleteIfExists(partFile(destination));
+            Files.deleteIfExists(journalFile(destination));
+
+            System.out.println("--> " + destination.getFileName() + " взят из локального хранилища");
+            return new DownloadResult(destination, Files.size(destination), sha256.toLowerCase());
+        } catch (IOException e)
+        {
+            System.err.println("--> Не удалось взять файл из хранилища: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Заполняет .part совпавшими блоками seed. Ошибка не фатальна: файл просто скачается целиком.
+     */
+    private void seed(BlockManifest manifest, Path seed, Path part, DownloadJournal journal, ProgressListener progress)
+    {
+        long started = System.nanoTime();
+
+        try {
+            prepareFile(part, manifest.getSize(), journal);
+
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ, StandardOpenOption.WRITE))
+            {
+                long reused = manifest.seed(seed, channel, journal);
+                journal.checkpoint(channel);
+
+                System.out.println("--> Дельта из " + seed.getFileName() + ": " + reused / 1024 + " КБ из "
+                        + manifest.getSize() / 1024 + " КБ на месте за " + (System.nanoTime() - started) / 1_000_000 + " мс");
+            }
+        } catch (IOException e)
+        {
+            journal.reset();
+            progress.onEvent("Дельта-загрузка не удалась, качаем целиком: " + e.getMessage());
+        }
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
     private CompletableFuture<Void> downloadSingleThreaded(
-            String urlStr,
-            Path destination,
-            long totalSize,
-            Consumer<Integer> progressCallback)
+            MirrorSet mirrors,
+            Path part,
+            DownloadMetadata meta,
+            DownloadJournal journal,
+            StreamingDigest digest,
+            ProgressListener progress,
+            DownloadControl control)
     {
-        return retryAsync(() ->
+        FileChannel channel;
+
+        try {
+            prepareFile(part, meta.size, journal);
+            channel = FileChannel.open(part,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> result = RETRY.run(() ->
         {
-            HttpRequest req = HttpRequest.newBuilder()
-                    .GET()
-                    .uri(URI.create(urlStr))
-                    .header("User-Agent", "VXLauncher/1.2")
-                    .timeout(Duration.ofMinutes(10))
-                    .build();
+            long offset = journal != null ? journal.contiguousPrefix() : 0;
+            AtomicLong received = new AtomicLong();
 
-            return CLIENT.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream())
-                    .thenAccept(resp ->
+            HttpResponse.BodyHandler<Void> handler = info ->
                     {
-                        if (resp.statusCode() != 200) {
-                            throw new RuntimeException("HTTP " + resp.statusCode());
+                        if (info.statusCode() != 200 && info.statusCode() != 206) {
+                            return HttpResponse.BodySubscribers.replacing(null);
                         }
 
-                        long size = totalSize > 0 ? totalSize :
-                                resp.headers().firstValue("content-length")
+                        // 200 на запрос с Range - файл на сервере сменился (If-Range не совпал), начинаем с нуля
+                        long start = info.statusCode() == 206 ? offset : 0;
+                        long size = meta.size > 0 ? meta.size :
+                                info.headers().firstValue("content-length")
                                         .map(Long::parseLong).orElse(-1L);
 
-                        downloadWithNIO(resp.body(), destination, size, progressCallback);
-                    });
+                        try {
+                            if (start == 0)
+                            {
+                                if (journal != null) journal.reset();
+                                else channel.truncate(0);
+                            }
+
+                            if (digest.getHashed() > start) {
+                                digest.reset();
+                            }
+                            digest.catchUp(channel, start);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+
+                        JournalWriter writer = new JournalWriter(journal, channel, digest, start)
+                        {
+                            @Override
+                            void onWritten(long from, long to)
+                            {
+                                received.addAndGet(to - from);
+                                progress.onProgress(to, size);
+                                progress.onContiguous(to);
+                            }
+                        };
+
+                        FileChannelSubscriber subscriber = new FileChannelSubscriber(channel, start, writer, bandwidth(control));
+                        watchdog.watch(subscriber, "bytes=" + start + "-", progress::onEvent);
+                        control.register(subscriber.getBody(), subscriber::abort);
+                        return subscriber;
+                    };
+
+            CompletableFuture<HttpResponse<Void>> response = offset == 0 ? mirrors.adoptProbe(handler) : null;
+            MirrorSet.Mirror mirror = response != null ? mirrors.probeMirror() : mirrors.best();
+            long started = System.nanoTime();
+
+            if (response == null)
+            {
+                HttpRequest.Builder builder = HttpRequest.newBuilder()
+                        .GET()
+                        .uri(mirror.getTarget())
+                        .header("User-Agent", "VXLauncher/1.2")
+                        .timeout(RESPONSE_TIMEOUT);
+
+                if (offset > 0) {
+                    builder.header("Range", "bytes=" + offset + "-");
+                    validator(mirror.getMeta()).ifPresent(v -> builder.header("If-Range", v));
+                }
+
+                response = send(CLIENT, builder.build(), control, handler);
+            }
+
+            return response
+                    .thenAccept(resp -> checkStatus(resp, mirror, 200, 206))
+                    .whenComplete((v, e) -> track(mirrors, mirror, received.get(), started, e));
         });
+
+        return result.whenComplete((v, e) -> closeQuietly(channel));
     }
 
     private CompletableFuture<Void> downloadMultiThreaded(
-            String urlStr,
-            Path destination,
-            long totalSize,
-            Consumer<Integer> progressCallback) {
-
-        int numThreads = Math.min(8, (int) ((totalSize + CHUNK_SIZE - 1) / CHUNK_SIZE));
-        long chunkSize = totalSize / numThreads;
+            MirrorSet mirrors,
+            Path part,
+            DownloadMetadata meta,
+            DownloadJournal journal,
+            StreamingDigest digest,
+            ProgressListener progress,
+            DownloadControl control) {
 
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-        AtomicLong downloaded = new AtomicLong(0);
+        RangedTransfer transfer;
 
         try {
-            Files.createDirectories(destination.getParent());
-            try (FileChannel fc = FileChannel.open(destination,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.WRITE,
-                    StandardOpenOption.TRUNCATE_EXISTING)) {
-                fc.position(totalSize - 1);
-                fc.write(ByteBuffer.wrap(new byte[]{0}));
-            }
+            prepareFile(part, meta.size, journal);
+            transfer = new RangedTransfer(mirrors, meta, journal, digest,
+                    FileChannel.open(part, StandardOpenOption.READ, StandardOpenOption.WRITE), progress, control);
         } catch (IOException e) {
             return CompletableFuture.failedFuture(e);
         }
 
-        for (int i = 0; i < numThreads; i++)
+        if (journal.isComplete()) {
+            transfer.done.complete(null);
+        }
+
+        progress.onConnections(transfer.scheduler::connectionStats);
+
+        for (int i = 0; i < transfer.scheduler.getTargetConnections() && !journal.isComplete(); i++) {
+            spawnConnection(transfer);
+        }
+
+        transfer.drainDigest();
+
+        return transfer.done
+                .thenRun(transfer::finishDigest)
+                .whenComplete((v, e) -> transfer.close());
+    }
+
+    private void spawnConnection(RangedTransfer transfer)
+    {
+        transfer.scheduler.connectionOpened();
+
+        runConnection(transfer).whenComplete((v, e) ->
         {
-            long start = i * chunkSize;
-            long end = (i == numThreads - 1) ? totalSize - 1 : start + chunkSize - 1;
+            if (e != null)
+            {
+                transfer.scheduler.connectionFailed();
+                transfer.scheduler.abort();
+                transfer.done.completeExceptionally(e);
+            }
+
+            if (transfer.scheduler.isFinished()) {
+                transfer.done.complete(null);
+            }
+        });
+    }
 
-            CompletableFuture<Void> future = downloadChunk(urlStr, destination, start, end, downloaded, totalSize, progressCallback);
-            futures.add(future);
+    private CompletableFuture<Void> runConnection(RangedTransfer transfer)
+    {
+        RangeScheduler.Segment segment = transfer.scheduler.next();
+        if (segment == null) {
+            return CompletableFuture.completedFuture(null);
         }
 
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        return downloadSegment(transfer, segment).thenCompose(v ->
+        {
+            transfer.scheduler.finished(segment);
+
+            for (int i = transfer.scheduler.connectionsToAdd(); i > 0; i--) {
+                spawnConnection(transfer);
+            }
+
+            return runConnection(transfer);
+        });
     }
 
-    private CompletableFuture<Void> downloadChunk(
-            String urlStr,
-            Path destination,
-            long start,
-            long end,
-            AtomicLong downloaded,
-            long totalSize,
-            Consumer<Integer> progressCallback)
+    private CompletableFuture<Void> downloadSegment(RangedTransfer transfer, RangeScheduler.Segment segment)
     {
-        return retryAsync(() -> {
-            HttpRequest req = HttpRequest.newBuilder()
-                    .GET()
-                    .uri(URI.create(urlStr))
-                    .header("User-Agent", "VXLauncher/1.2")
-                    .header("Range", "bytes=" + start + "-" + end)
-                    .timeout(Duration.ofMinutes(10))
-                    .build();
+        DownloadJournal journal = transfer.journal;
 
-            return CLIENT.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream())
-                    .thenAccept(resp ->
+        return RETRY.run(() -> {
+            if (transfer.scheduler.isAborted()) {
+                return CompletableFuture.failedFuture(new CancellationException("Загрузка прервана"));
+            }
+
+            long from = segment.rewind();
+            if (segment.isDone()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            HttpResponse.BodyHandler<Void> handler = info ->
                     {
-                        if (resp.statusCode() != 206 && resp.statusCode() != 200)
-                        {
-                            throw new RuntimeException("HTTP " + resp.statusCode());
+                        if (info.statusCode() != 206) {
+                            return HttpResponse.BodySubscribers.replacing(null);
                         }
 
-                        try (InputStream in = resp.body();
-                             ReadableByteChannel rbc = Channels.newChannel(in);
-                             FileChannel out = FileChannel.open(destination, StandardOpenOption.WRITE)) {
-
-                            out.position(start);
-                            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                        JournalWriter writer = new JournalWriter(journal, transfer.channel, transfer.digest, from)
+                        {
+                            @Override
+                            public long limit(long position, long n) {
+                                // конец куска мог сдвинуться, если хвост забрало другое соединение
+                                return segment.reserve((int) Math.min(n, Integer.MAX_VALUE));
+                            }
 
-                            int read;
-                            while ((read = rbc.read(buffer)) != -1)
+                            @Override
+                            void onWritten(long from, long to)
                             {
-                                buffer.flip();
+                                segment.commit(to);
+                                transfer.scheduler.onTransferred(to - from);
+                                transfer.reportProgress(to - from);
+                            }
 
-                                while (buffer.hasRemaining()) {
-                                    out.write(buffer);
-                                }
+                            @Override
+                            void onCommitted() {
+                                transfer.drainDigest();
+                            }
+                        };
 
-                                buffer.clear();
+                        FileChannelSubscriber subscriber = new FileChannelSubscriber(transfer.channel, from, writer, bandwidth(transfer.control));
+                        watchdog.watch(subscriber, "bytes=" + from + "-" + segment.getEnd(), transfer.progress::onEvent);
+                        transfer.control.register(subscriber.getBody(), subscriber::abort);
+                        return subscriber;
+                    };
 
-                                if (progressCallback != null)
-                                {
-                                    long current = downloaded.addAndGet(read);
-                                    int pct = (int) (current * 100 / totalSize);
-                                    progressCallback.accept(Math.min(pct, 100));
-                                }
-                            }
-                        } catch (IOException e)
-                        {
-                            throw new RuntimeException("I/O error in chunk download", e);
+            // первый кусок читает тело пробного запроса, если его ещё никто не забрал
+            CompletableFuture<HttpResponse<Void>> response = from == 0 ? transfer.mirrors.adoptProbe(handler) : null;
+            MirrorSet.Mirror mirror = response != null ? transfer.mirrors.probeMirror() : transfer.mirrors.pick();
+            long started = System.nanoTime();
+
+            if (response == null)
+            {
+                HttpRequest.Builder builder = HttpRequest.newBuilder()
+                        .GET()
+                        .uri(mirror.getTarget())
+                        .header("User-Agent", "VXLauncher/1.2")
+                        .header("Range", "bytes=" + from + "-" + (segment.getEnd() - 1))
+                        .timeout(RESPONSE_TIMEOUT);
+
+                validator(mirror.getMeta()).ifPresent(v -> builder.header("If-Range", v));
+
+                response = send(CLIENT, builder.build(), transfer.control, handler);
+            }
+
+            return response
+                    .thenAccept(resp ->
+                    {
+                        checkStatus(resp, mirror, 206);
+
+                        if (!segment.isDone()) {
+                            throw new UncheckedIOException(new IOException(
+                                    "Соединение оборвалось на " + segment.getCommitted() + " из " + segment.getEnd()));
                         }
-                    });
+                    })
+                    .whenComplete((v, e) -> track(transfer.mirrors, mirror, segment.getCommitted() - from, started, e));
         });
     }
 
-    private void downloadWithNIO(
-            InputStream in,
-            Path destination,
-            long totalSize,
-            Consumer<Integer> progressCallback)
+    /**
+     * Проверяет код ответа и что размер файла не изменился с пробного запроса. Отказ по конечному адресу после редиректа (подпись ссылки истекла)
+     * повторяется уже через исходный адрес.
+     */
+    private static void checkStatus(HttpResponse<?> resp, MirrorSet.Mirror mirror, int... expected)
     {
-        try (ReadableByteChannel rbc = Channels.newChannel(in);
-             FileChannel out = FileChannel.open(destination,
-                     StandardOpenOption.CREATE,
-                     StandardOpenOption.WRITE,
-                     StandardOpenOption.TRUNCATE_EXISTING))
+        int status = resp.statusCode();
+
+        for (int code : expected)
         {
-            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
-            long downloaded = 0;
-            int read;
+            if (status != code) continue;
 
-            while ((read = rbc.read(buffer)) != -1)
-            {
-                buffer.flip();
+            long size = status == 206
+                    ? resp.headers().firstValue("content-range").map(DownloadMetadata::totalSize).orElse(-1L)
+                    : -1;
 
-                while (buffer.hasRemaining()) {
-                    out.write(buffer);
-                }
+            if (size >= 0 && size != mirror.getMeta().size) {
+                throw new IllegalStateException("Файл на " + resp.uri().getHost() + " изменился: "
+                        + size + " байт вместо " + mirror.getMeta().size);
+            }
 
-                buffer.clear();
-                downloaded += read;
+            return;
+        }
 
-                if (totalSize > 0 && progressCallback != null)
-                {
-                    int pct = (int) (downloaded * 100 / totalSize);
-                    progressCallback.accept(pct);
-                }
-            }
+        if (mirror.isRedirected() && (status == 401 || status == 403 || status == 404 || status == 410))
+        {
+            mirror.expireTarget();
+            throw new UncheckedIOException(new IOException(
+                    "Адрес " + resp.uri().getHost() + " больше не действует (HTTP " + status + "), идём через " + mirror.getUrl()));
+        }
 
-            if (progressCallback != null) progressCallback.accept(100);
+        throw HttpStatusException.of(resp);
+    }
 
-        } catch (IOException e)
+    /**
+     * Учитывает скорость и сбои зеркала в его оценке.
+     */
+    private static void track(MirrorSet mirrors, MirrorSet.Mirror mirror, long bytes, long started, Throwable error)
+    {
+        mirrors.onTransferred(mirror, bytes, System.nanoTime() - started);
+
+        if (error != null && !(RetryPolicy.unwrap(error) instanceof CancellationException)) {
+            mirrors.onFailure(mirror);
+        }
+    }
+
+    /**
+     * Открывает .part файл без обрезки, если журнал позволяет продолжить, иначе начинает с нуля.
+     */
+    private void prepareFile(Path part, long size, DownloadJournal journal) throws IOException
+    {
+        Files.createDirectories(part.toAbsolutePath().getParent());
+
+        if (journal == null) {
+            return;
+        }
+
+        boolean resume = journal.getCommittedBytes() > 0 && Files.exists(part) && Files.size(part) == size;
+        if (!resume) {
+            journal.reset();
+        }
+
+        try (FileChannel fc = FileChannel.open(part,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE))
         {
+            if (!resume) {
+                fc.truncate(0);
+            }
+
+            if (fc.size() < size) {
+                fc.write(ByteBuffer.wrap(new byte[]{0}), size - 1);
+            }
+
+            journal.checkpoint(fc);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel)
+    {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private DownloadResult complete(Path part, Path destination, DownloadJournal journal, StreamingDigest digest)
+    {
+        try {
+            if (journal != null && !journal.isComplete()) {
+                throw new IOException("Файл скачан не полностью: " + journal.getCommittedBytes() + " из " + journal.getSize());
+            }
+
+            long size = Files.size(part);
+            String sha256 = digest.finish(size);
+
+            try {
+                Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (journal != null) journal.delete();
+
+            return new DownloadResult(destination, size, sha256);
+        } catch (IOException e) {
             throw new RuntimeException("I/O error", e);
         }
     }
 
-    private <T> CompletableFuture<T> retryAsync(
-            Supplier<CompletableFuture<T>> supplier)
+    private static Optional<String> validator(DownloadMetadata meta)
+    {
+        if (meta.etag != null && !meta.etag.startsWith("W/")) {
+            return Optional.of(meta.etag);
+        }
+
+        return Optional.ofNullable(meta.lastModified);
+    }
+
+    public static Path partFile(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + PART_SUFFIX);
+    }
+
+    public static Path journalFile(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Служебный файл недокачанной загрузки (.part или журнал к нему).
+     */
+    public static boolean isPartial(Path file)
+    {
+        String name = file.getFileName().toString();
+        return name.endsWith(PART_SUFFIX) || name.endsWith(JOURNAL_SUFFIX) || name.endsWith(JOURNAL_SUFFIX + ".tmp");
+    }
+
+    /**
+     * Запрос в пределах лимита соединений и через предохранитель хоста: если хост лежит,
+     * запрос не уходит в сеть вовсе. Место в лимите занято до конца приёма тела.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(
+            HttpClient client,
+            HttpRequest request,
+            DownloadControl control,
+            HttpResponse.BodyHandler<T> handler)
     {
-        CompletableFuture<T> result = supplier.get();
+        if (control.isStopped()) {
+            return CompletableFuture.failedFuture(control.getStopReason());
+        }
 
-        for (int i = 0; i < DownloadService.MAX_RETRIES; i++)
+        String host = request.uri().getHost();
+
+        return limiter.acquire(host, control).thenCompose(permit ->
         {
-            final int attempt = i;
+            CircuitBreaker breaker = CircuitBreaker.forHost(host);
 
-            result = result.exceptionallyCompose(ex ->
+            if (!breaker.tryAcquire())
             {
-                if (attempt < DownloadService.MAX_RETRIES - 1)
-                {
-                    try
-                    {
-                        Thread.sleep((long) Math.pow(2, attempt) * 1000);
-                    } catch (InterruptedException ie)
-                    {
-                        Thread.currentThread().interrupt();
-                    }
+                permit.run();
+                return CompletableFuture.failedFuture(new CircuitBreaker.OpenException(breaker.getHost(), breaker.isProbing()));
+            }
+
+            return send(client, request, handler, breaker).whenComplete((resp, e) -> permit.run());
+        });
+    }
+
+    /**
+     * Исход для предохранителя - по статусу, как только пришли заголовки: пробный запрос не держит
+     * хост закрытым, пока качается тело. Сбои при приёме тела достаются повтору и StallWatchdog.
+     */
+    private static <T> CompletableFuture<HttpResponse<T>> send(
+            HttpClient client,
+            HttpRequest request,
+            HttpResponse.BodyHandler<T> handler,
+            CircuitBreaker breaker)
+    {
+        AtomicBoolean answered = new AtomicBoolean();
+
+        HttpResponse.BodyHandler<T> recording = info ->
+        {
+            answered.set(true);
+
+            if (info.statusCode() >= 500) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+
+            return handler.apply(info);
+        };
+
+        return client.sendAsync(request, recording).whenComplete((resp, e) ->
+        {
+            if (e == null || answered.get()) return;
+
+            Throwable cause = RetryPolicy.unwrap(e);
+
+            // отмена и обрыв медленного соединения не говорят о том, что хост лежит
+            if (cause instanceof CancellationException || cause instanceof StallWatchdog.StallException) {
+                breaker.onAbandoned();
+            } else {
+                breaker.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Поток с байтами [offset, offset + length) файла с первого ответившего адреса.
+     * Нужен для точечной докачки отдельных записей архива, поэтому ответ 200 без диапазона - ошибка.
+     */
+    public InputStream openRange(List<String> urls, long offset, long length) throws IOException
+    {
+        IOException last = new IOException("Нет адресов для загрузки");
+
+        for (String url : urls)
+        {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .GET()
+                    .uri(URI.create(url))
+                    .header("User-Agent", "VXLauncher/1.2")
+                    .header("Range", "bytes=" + offset + "-" + (offset + length - 1))
+                    .timeout(RESPONSE_TIMEOUT)
+                    .build();
+
+            try {
+                HttpResponse<InputStream> response = send(CLIENT, request, new DownloadControl(),
+                        HttpResponse.BodyHandlers.ofInputStream()).join();
 
-                    return supplier.get();
+                if (response.statusCode() == 206) {
+                    return response.body();
                 }
 
-                return CompletableFuture.failedFuture(ex);
-            });
+                response.body().close();
+                last = new IOException(url + ": " + HttpStatusException.of(response).getMessage());
+            } catch (CompletionException e)
+            {
+                Throwable cause = RetryPolicy.unwrap(e);
+                last = cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+            }
         }
 
-        return result;
+        throw last;
+    }
+
+    public DownloadResult downloadFile(String url, Path dest, IntConsumer cb) {
+        return downloadAsync(url, dest, cb).join();
+    }
+
+    public DownloadResult downloadFile(String url, Path dest, ProgressListener progress) {
+        return downloadAsync(url, dest, progress).join();
+    }
+
+    public DownloadResult downloadFile(List<String> urls, Path dest, ProgressListener progress) {
+        return downloadAsync(urls, dest, progress).join();
     }
 
-    public void downloadFile(String url, Path dest, Consumer<Integer> cb) {
-        downloadAsync(url, dest, cb).join();
+    public DownloadResult downloadFile(List<String> urls, Path dest, ProgressListener progress, DownloadControl control) {
+        return downloadAsync(urls, dest, progress, control).join();
     }
 
-    private DownloadMetadata fetchMetadata(String urlStr)
+    public DownloadResult downloadFile(List<String> urls, Path dest, ProgressListener progress, DownloadControl control,
+                                       String sha256, BlockManifest manifest, Path seed) {
+        return downloadAsync(urls, dest, progress, control, sha256, manifest, seed).join();
+    }
+
+    /**
+     * Пишет данные в журнал и хеш порциями по COMMIT_BYTES, а не на каждый буфер клиента,
+     * чтобы горячий путь записи ничего не аллоцировал.
+     */
+    private abstract static class JournalWriter implements FileChannelSubscriber.Listener
     {
-        try
+        private final DownloadJournal journal;
+        private final FileChannel channel;
+        private final StreamingDigest digest;
+
+        private long position;
+        private long uncommitted;
+        private long checkpointed;
+
+        JournalWriter(DownloadJournal journal, FileChannel channel, StreamingDigest digest, long start)
         {
-            HttpRequest head = HttpRequest.newBuilder()
-                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
-                    .uri(URI.create(urlStr))
-                    .header("User-Agent", "VXLauncher/1.2")
-                    .timeout(Duration.ofSeconds(5))
-                    .build();
+            this.journal = journal;
+            this.channel = channel;
+            this.digest = digest;
+            this.position = start;
+            this.uncommitted = start;
+            this.checkpointed = start;
+        }
 
-            HttpResponse<Void> resp = CLIENT.send(head, HttpResponse.BodyHandlers.discarding());
+        abstract void onWritten(long from, long to);
 
-            long size = resp.headers()
-                    .firstValue("content-length")
-                    .map(Long::parseLong)
-                    .orElse(-1L);
+        void onCommitted() {
+        }
 
-            boolean supportsRanges = resp.headers()
-                    .firstValue("accept-ranges")
-                    .map(v -> v.equalsIgnoreCase("bytes"))
-                    .orElse(false);
+        @Override
+        public void beforeWrite(long position, ByteBuffer data) {
+            digest.update(position, data);
+        }
 
-            return new DownloadMetadata(size, supportsRanges);
-        } catch (Exception e)
+        @Override
+        public final void written(long from, long to) throws IOException
         {
-            return new DownloadMetadata(-1L, false);
+            position = to;
+            onWritten(from, to);
+
+            if (to - uncommitted >= COMMIT_BYTES) {
+                commit();
+            }
+
+            if (journal != null && to - checkpointed >= CHECKPOINT_BYTES)
+            {
+                journal.checkpoint(channel);
+                checkpointed = to;
+            }
+        }
+
+        private void commit()
+        {
+            if (journal != null) journal.commit(uncommitted, position);
+            uncommitted = position;
+            onCommitted();
+        }
+
+        /**
+         * Коммитит остаток и сохраняет журнал по завершении или обрыве ответа.
+         */
+        @Override
+        public void finished()
+        {
+            if (uncommitted == position && checkpointed == position) return;
+
+            commit();
+
+            if (journal != null && channel.isOpen())
+            {
+                try {
+                    journal.checkpoint(channel);
+                    checkpointed = position;
+                } catch (IOException e) {
+                    System.err.println("--> Не удалось сохранить журнал докачки: " + e.getMessage());
+                }
+            }
         }
     }
 
-    private record DownloadMetadata(long size, boolean supportsRanges) {}
+    /**
+     * Состояние одной многопоточной загрузки, общее для всех её соединений.
+     */
+    private static final class RangedTransfer
+    {
+        final MirrorSet mirrors;
+        final DownloadMetadata meta;
+        final DownloadJournal journal;
+        final StreamingDigest digest;
+        final FileChannel channel;
+        final RangeScheduler scheduler;
+        final ProgressListener progress;
+        final DownloadControl control;
+        final AtomicLong downloaded;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        RangedTransfer(MirrorSet mirrors, DownloadMetadata meta, DownloadJournal journal, StreamingDigest digest,
+                       FileChannel channel, ProgressListener progress, DownloadControl control)
+        {
+            this.mirrors = mirrors;
+            this.meta = meta;
+            this.journal = journal;
+            this.digest = digest;
+            this.channel = channel;
+            this.progress = progress;
+            this.control = control;
+            this.scheduler = new RangeScheduler(journal.missing(0, meta.size));
+            this.downloaded = new AtomicLong(journal.getCommittedBytes());
+        }
+
+        void reportProgress(long bytes)
+        {
+            progress.onProgress(Math.min(meta.size, downloaded.addAndGet(bytes)), meta.size);
+        }
+
+        /**
+         * Сообщает о росте непрерывного префикса и догоняет по нему хеш в фоне, не занимая потоки загрузки.
+         */
+        void drainDigest()
+        {
+            progress.onContiguous(journal.contiguousPrefix());
+
+            if (journal.contiguousPrefix() <= digest.getHashed() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+
+            CompletableFuture.runAsync(() ->
+            {
+                try {
+                    digest.catchUp(channel, journal.contiguousPrefix());
+                } catch (IOException ignored) {
+                    // досчитается в finishDigest()
+                } finally {
+                    draining.set(false);
+                }
+            }, IO);
+        }
+
+        void finishDigest()
+        {
+            try {
+                digest.catchUp(channel, meta.size);
+            } catch (IOException e) {
+                System.err.println("--> Не удалось досчитать SHA-256: " + e.getMessage());
+            }
+        }
+
+        void close() {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Что известно о файле на сервере; target - конечный адрес после редиректов.
+     */
+    record DownloadMetadata(long size, boolean supportsRanges, String etag, String lastModified, URI target)
+    {
+        boolean isResumable() {
+            return supportsRanges && size > 0;
+        }
+
+        /**
+         * Из заголовков ответа на Range: bytes=0-. 206 с Content-Range - диапазоны поддерживаются,
+         * 200 - сервер Range проигнорировал.
+         */
+        static DownloadMetadata of(HttpResponse.ResponseInfo info, URI target)
+        {
+            HttpHeaders headers = info.headers();
+            boolean partial = info.statusCode() == 206;
+
+            long size = partial
+                    ? headers.firstValue("content-range").map(DownloadMetadata::totalSize).orElse(-1L)
+                    : headers.firstValueAsLong("content-length").orElse(-1L);
+
+            return new DownloadMetadata(size, partial,
+                    headers.firstValue("etag").orElse(null),
+                    headers.firstValue("last-modified").orElse(null),
+                    target);
+        }
+
+        // "bytes 0-1023/146515" -> 146515, "*" вместо размера -> -1
+        private static long totalSize(String contentRange)
+        {
+            int slash = contentRange.lastIndexOf('/');
+            if (slash < 0) return -1;
+
+            try {
+                return Long.parseLong(contentRange.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+//////////////////////////////////////////////////////
+//// @File service/FileChannelSubscriber.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пишет тело ответа прямо в FileChannel позиционной записью, без InputStream и
+ * промежуточных буферов. Следующую порцию данных запрашивает только после записи
+ * текущей, так что поток клиента не блокируется в ожидании сети. С ограничением скорости
+ * следующая порция запрашивается с задержкой, которую назначил BandwidthLimiter.
+ */
+public class FileChannelSubscriber implements HttpResponse.BodySubscriber<Void>
+{
+    public interface Listener
+    {
+        /**
+         * Сколько байт из n можно записать с позиции position. Меньше n - остаток отбрасывается и приём завершается.
+         */
+        default long limit(long position, long n) {
+            return n;
+        }
+
+        /**
+         * Вызывается перед записью; data нельзя сдвигать.
+         */
+        default void beforeWrite(long position, ByteBuffer data) {
+        }
+
+        void written(long from, long to) throws IOException;
+
+        /**
+         * Приём закончен (успешно, с ошибкой или по limit). Вызывается до завершения getBody().
+         */
+        default void finished() {
+        }
+    }
+
+    private final FileChannel channel;
+    private final Listener listener;
+    private final BandwidthLimiter bandwidth;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private volatile long position;
+    private volatile long throttledNanos;
+
+    public FileChannelSubscriber(FileChannel channel, long position, Listener listener) {
+        this(channel, position, listener, null);
+    }
+
+    public FileChannelSubscriber(FileChannel channel, long position, Listener listener, BandwidthLimiter bandwidth)
+    {
+        this.channel = channel;
+        this.position = position;
+        this.listener = listener;
+        this.bandwidth = bandwidth;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Сколько всего приём простоял из-за ограничения скорости.
+     */
+    public long getThrottledNanos() {
+        return throttledNanos;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    /**
+     * Обрывает приём из другого потока: соединение закрывается, getBody() завершается с ошибкой.
+     */
+    public void abort(Throwable error)
+    {
+        Flow.Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+
+        complete(error);
+    }
+
+    @Override
+    public synchronized void onNext(List<ByteBuffer> items)
+    {
+        if (result.isDone()) return;
+
+        long start = position;
+
+        try {
+            for (int i = 0, n = items.size(); i < n; i++)
+            {
+                ByteBuffer buffer = items.get(i);
+                int available = buffer.remaining();
+                long allowed = listener.limit(position, available);
+                boolean last = allowed < available;
+
+                if (last) {
+                    buffer.limit(buffer.position() + (int) Math.max(0, allowed));
+                }
+
+                if (buffer.hasRemaining())
+                {
+                    long from = position;
+                    listener.beforeWrite(from, buffer);
+
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+
+                    listener.written(from, position);
+                }
+
+                if (last)
+                {
+                    subscription.cancel();
+                    complete(null);
+                    return;
+                }
+            }
+
+            long delay = bandwidth != null ? bandwidth.consume(position - start) : 0;
+
+            if (delay > 0)
+            {
+                throttledNanos += delay;
+                CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(this::requestNext);
+            }
+            else {
+                subscription.request(1);
+            }
+        } catch (Throwable t)
+        {
+            subscription.cancel();
+            complete(t);
+        }
+    }
+
+    private void requestNext()
+    {
+        if (!result.isDone()) {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        complete(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        complete(null);
+    }
+
+    private synchronized void complete(Throwable error)
+    {
+        if (result.isDone()) return;
+
+        try {
+            listener.finished();
+        } catch (Throwable t) {
+            if (error == null) error = t;
+        }
+
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(null);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> getBody() {
+        return result;
+    }
+}
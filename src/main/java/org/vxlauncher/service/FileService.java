@@ -6,11 +6,18 @@
 
 package org.vxlauncher.service;
 
+import org.vxlauncher.AppInfo;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.security.MessageDigest;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class FileService
 {
@@ -33,44 +40,52 @@ public class FileService
         return contents == null || contents.length == 0;
     }
 
-    public void unzip(Path zipFile, Path destDir) throws IOException
-    {
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile.toFile())))
-        {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null)
-            {
-                Path newPath = destDir.resolve(entry.getName());
-
-                if (entry.isDirectory())
-                {
-                    Files.createDirectories(newPath);
-                }
-                else
-                {
-                    Files.createDirectories(newPath.getParent());
-                    Files.copy(zis, newPath, StandardCopyOption.REPLACE_EXISTING);
-                }
-
-                zis.closeEntry();
-            }
-        }
+    public void unzip(Path zipFile, Path destDir) throws IOException {
+        ZipExtractor.extract(zipFile, destDir);
+    }
+
+    public void unzip(Path zipFile, Path destDir, Path checkpoint) throws IOException {
+        ZipExtractor.extract(zipFile, destDir, checkpoint);
+    }
+
+    /**
+     * Заменяет одинаковые файлы установленных версий ссылками на один.
+     */
+    public Deduplicator.Report deduplicate(Path versionsDir) throws IOException {
+        return Deduplicator.deduplicate(versionsDir);
+    }
+
+    /**
+     * То же только для файлов dir - свежей установки, ещё не перенесённой в versionsDir.
+     */
+    public Deduplicator.Report deduplicate(Path versionsDir, Path dir) throws IOException {
+        return Deduplicator.deduplicate(versionsDir, dir);
     }
 
     public String calculateSHA256(Path file) throws Exception
     {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
 
-        try (InputStream fis = Files.newInputStream(file))
+        BufferPool pool = BufferPool.shared();
+        ByteBuffer buffer = pool.acquire();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
         {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = fis.read(buffer)) != -1) {
-                digest.update(buffer, 0, bytesRead);
+            while (channel.read(buffer) != -1)
+            {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
             }
+        } finally {
+            pool.release(buffer);
         }
 
-        byte[] hash = digest.digest();
+        return toHex(digest.digest());
+    }
+
+    public static String toHex(byte[] hash)
+    {
         StringBuilder hexString = new StringBuilder();
         for (byte b : hash)
         {
@@ -85,39 +100,47 @@ public class FileService
         return hexString.toString();
     }
 
+    /**
+     * Ищет исполняемый файл в папке версии полным обходом. Нужен только для версий,
+     * у которых он не записан при установке.
+     */
     public File findExecutable(String dir, String extension)
     {
-        File directory = new File(dir);
+        Path root = Paths.get(dir);
+        List<String> paths = new ArrayList<>();
 
-        File[] allFiles = directory.listFiles();
-        if (allFiles != null)
+        try (Stream<Path> files = Files.walk(root))
         {
-            for (File file : allFiles)
-            {
-                if (file.isFile() && file.getName().toLowerCase().endsWith(extension.toLowerCase())) {
-                    if (!file.getName().equalsIgnoreCase("vctest.exe")) {
-                        return file;
-                    }
-                }
-            }
+            files.filter(Files::isRegularFile)
+                    .forEach(f -> paths.add(root.relativize(f).toString().replace(File.separatorChar, '/')));
+        } catch (IOException | UncheckedIOException e) {
+            return null;
         }
 
-        if (allFiles != null)
-        {
-            for (File subdir : allFiles)
-            {
-                if (subdir.isDirectory())
-                {
-                    File found = findExecutable(subdir.getAbsolutePath(), extension);
-
-                    if (found != null) {
-                        return found;
-                    }
-                }
-            }
-        }
+        String found = chooseExecutable(paths, extension);
+        return found != null ? root.resolve(found).toFile() : null;
+    }
 
-        return null;
+    /**
+     * Выбирает исполняемый файл игры среди путей версии: названный по игре, потом ближайший
+     * к корню. Тестовые сборки (vctest.exe и т.п.) берутся, только если больше ничего нет.
+     * @return путь из paths или null
+     */
+    public static String chooseExecutable(Collection<String> paths, String extension)
+    {
+        String game = AppInfo.getGameName().toLowerCase();
+
+        return paths.stream()
+                .filter(p -> p.toLowerCase().endsWith(extension.toLowerCase()))
+                .min(Comparator.<String, Boolean>comparing(p -> fileName(p).contains("test"))
+                        .thenComparing(p -> !fileName(p).startsWith(game))
+                        .thenComparingLong(p -> p.chars().filter(c -> c == '/').count())
+                        .thenComparing(Comparator.naturalOrder()))
+                .orElse(null);
+    }
+
+    private static String fileName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1).toLowerCase();
     }
 
     public boolean setExecutable(Path file)
@@ -130,4 +153,74 @@ public class FileService
     {
         Files.delete(file);
     }
+
+    /**
+     * Подменяет target готовой папкой staging переименованием. Прежняя папка на время
+     * отодвигается в .old и возвращается на место, если перенос не удался.
+     */
+    public void replaceDirectory(Path staging, Path target) throws IOException
+    {
+        Path old = oldDir(target);
+        deleteDirectory(old);
+
+        if (Files.exists(target)) {
+            move(target, old);
+        }
+
+        try {
+            move(staging, target);
+        } catch (IOException e)
+        {
+            if (Files.exists(old)) {
+                move(old, target);
+            }
+
+            throw new IOException("Не удалось перенести " + staging.getFileName() + " в " + target + ": " + e.getMessage(), e);
+        }
+
+        deleteDirectory(old);
+    }
+
+    /**
+     * После сбоя между двумя переименованиями в replaceDirectory прежняя папка осталась в .old - возвращаем её.
+     */
+    public void restoreDirectory(Path target) throws IOException
+    {
+        Path old = oldDir(target);
+
+        if (Files.exists(old) && !Files.exists(target))
+        {
+            System.out.println("--> Возвращаем прежнюю папку " + target.getFileName());
+            move(old, target);
+        }
+    }
+
+    private static Path oldDir(Path target) {
+        return target.resolveSibling("." + target.getFileName() + ".old");
+    }
+
+    private static void move(Path from, Path to) throws IOException
+    {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to);
+        }
+    }
+
+    /**
+     * Удаляет каталог со всем содержимым, если он есть.
+     */
+    public void deleteDirectory(Path dir)
+            throws IOException
+    {
+        if (!Files.exists(dir)) return;
+
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+//////////////////////////////////////////////////////
+//// @File service/HttpStatusException.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Неожиданный HTTP статус. Хранит Retry-After, если сервер его прислал.
+ */
+public class HttpStatusException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    public HttpStatusException(int statusCode, Duration retryAfter)
+    {
+        super("HTTP " + statusCode);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public static HttpStatusException of(HttpResponse<?> resp) {
+        return new HttpStatusException(resp.statusCode(), parseRetryAfter(resp.headers().firstValue("retry-after").orElse(null)));
+    }
+
+    public int getStatusCode() { return statusCode; }
+
+    /** null, если сервер не прислал Retry-After */
+    public Duration getRetryAfter() { return retryAfter; }
+
+    /**
+     * Имеет ли смысл повторять запрос: таймауты, 429 и ошибки сервера - да, 404 и прочие 4xx - нет.
+     */
+    public boolean isRetryable()
+    {
+        return statusCode == 408 || statusCode == 425 || statusCode == 429
+                || (statusCode >= 500 && statusCode != 501 && statusCode != 505);
+    }
+
+    private static Duration parseRetryAfter(String value)
+    {
+        if (value == null || value.isBlank()) return null;
+
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+}
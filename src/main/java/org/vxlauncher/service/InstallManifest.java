@@ -0,0 +1,348 @@
+//////////////////////////////////////////////////////
+//// @File service/InstallManifest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32;
+
+/**
+ * Список установленных файлов (.files.json в папке версии): размер, mtime, CRC32 и, для файлов
+ * из zip, где лежит запись в архиве. CRC берётся готовым из центрального каталога, так что
+ * при установке ничего не пересчитывается. Проверка пропускает файлы с прежним размером и mtime,
+ * остальные хеширует параллельно.
+ */
+public class InstallManifest
+{
+    public static final String FILE = ".files.json";
+
+    // метод записи для файла релиза, скачанного целиком (не из архива)
+    public static final int WHOLE_FILE = -1;
+
+    private static final Gson GSON = new Gson();
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int EOCD_SIZE = 22;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+
+    // файлы меньше порога проверяются в одной задаче
+    private static final long SPLIT_BYTES = 4 * 1024 * 1024;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+
+    private String archive;
+    private String archiveSha256;
+    private List<Entry> files = new ArrayList<>();
+
+    public static class Entry
+    {
+        String path;
+        long size;
+        long mtime;
+        long crc;
+        int method;
+        long offset;
+        long compressedSize;
+
+        public String getPath() { return path; }
+        public long getSize() { return size; }
+        public long getCrc() { return crc; }
+        public int getMethod() { return method; }
+
+        /**
+         * Смещение локального заголовка записи в архиве, -1 - файл релиза целиком.
+         */
+        public long getOffset() { return offset; }
+        public long getCompressedSize() { return compressedSize; }
+    }
+
+    public String getArchive() { return archive; }
+    public String getArchiveSha256() { return archiveSha256; }
+    public List<Entry> getFiles() { return files; }
+
+    public boolean isArchive() {
+        return files.stream().noneMatch(e -> e.method == WHOLE_FILE);
+    }
+
+    /**
+     * Список по центральному каталогу архива, распакованного в dir.
+     */
+    public static InstallManifest fromArchive(Path zip, String sha256, Path dir) throws IOException
+    {
+        InstallManifest manifest = new InstallManifest();
+        manifest.archive = zip.getFileName().toString();
+        manifest.archiveSha256 = sha256;
+
+        for (Entry entry : readCentralDirectory(zip))
+        {
+            Path file = ZipExtractor.resolve(dir.toAbsolutePath().normalize(), entry.path);
+            entry.mtime = Files.getLastModifiedTime(file).toMillis();
+            manifest.files.add(entry);
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Список из одного файла релиза (AppImage и т.п.).
+     */
+    public static InstallManifest fromFile(Path file, String sha256) throws IOException
+    {
+        InstallManifest manifest = new InstallManifest();
+        manifest.archive = file.getFileName().toString();
+        manifest.archiveSha256 = sha256;
+
+        Entry entry = new Entry();
+        entry.path = manifest.archive;
+        entry.size = Files.size(file);
+        entry.mtime = Files.getLastModifiedTime(file).toMillis();
+        entry.crc = crc(file);
+        entry.method = WHOLE_FILE;
+        entry.offset = -1;
+        manifest.files.add(entry);
+
+        return manifest;
+    }
+
+    /**
+     * @return null, если списка нет (версия установлена до его появления) или он повреждён
+     */
+    public static InstallManifest load(Path dir)
+    {
+        Path file = dir.resolve(FILE);
+        if (!Files.exists(file)) return null;
+
+        try {
+            InstallManifest manifest = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), InstallManifest.class);
+            return manifest != null && manifest.files != null ? manifest : null;
+        } catch (Exception e) {
+            System.err.println("--> Список файлов " + file + " повреждён: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void save(Path dir) throws IOException
+    {
+        Path file = dir.resolve(FILE);
+        Path tmp = dir.resolve(FILE + ".tmp");
+        Files.writeString(tmp, GSON.toJson(this), StandardCharsets.UTF_8);
+
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Проверяет файлы в dir. Файл с прежними размером и mtime считается целым без чтения,
+     * если не full; у перехешированных целых файлов mtime обновляется, чтобы в следующий раз
+     * их снова пропустить.
+     * @return повреждённые и отсутствующие файлы
+     */
+    public List<Entry> verify(Path dir, boolean full)
+    {
+        Path root = dir.toAbsolutePath().normalize();
+        return POOL.invoke(new VerifyTask(root, files, full));
+    }
+
+    /**
+     * Запоминает текущий mtime восстановленного файла.
+     */
+    public synchronized void refresh(Path dir, Entry entry) throws IOException {
+        entry.mtime = Files.getLastModifiedTime(dir.resolve(entry.path)).toMillis();
+    }
+
+    private static boolean check(Path root, Entry entry, boolean full)
+    {
+        try {
+            Path file = ZipExtractor.resolve(root, entry.path);
+
+            if (!Files.isRegularFile(file) || Files.size(file) != entry.size) {
+                return false;
+            }
+
+            long mtime = Files.getLastModifiedTime(file).toMillis();
+            if (!full && mtime == entry.mtime) {
+                return true;
+            }
+
+            if (crc(file) != entry.crc) {
+                return false;
+            }
+
+            entry.mtime = mtime;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static long crc(Path file) throws IOException
+    {
+        CRC32 crc = new CRC32();
+
+        BufferPool pool = BufferPool.shared();
+        ByteBuffer buffer = pool.acquire();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            while (channel.read(buffer) != -1)
+            {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            pool.release(buffer);
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Читает центральный каталог zip напрямую: ZipFile не отдаёт смещения записей.
+     * ZIP64 не поддерживается - для таких архивов списка файлов не будет.
+     */
+    static List<Entry> readCentralDirectory(Path zip) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(zip, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            int tailSize = (int) Math.min(size, EOCD_SIZE + 0xFFFF);
+            ByteBuffer tail = read(channel, size - tailSize, tailSize);
+
+            int eocd = -1;
+            for (int i = tailSize - EOCD_SIZE; i >= 0; i--)
+            {
+                if (tail.getInt(i) == EOCD_SIGNATURE) {
+                    eocd = i;
+                    break;
+                }
+            }
+
+            if (eocd < 0) {
+                throw new IOException("Не найден центральный каталог архива " + zip.getFileName());
+            }
+
+            long directorySize = tail.getInt(eocd + 12) & ZIP64_MARKER;
+            long directoryOffset = tail.getInt(eocd + 16) & ZIP64_MARKER;
+
+            if (directoryOffset == ZIP64_MARKER || directorySize > Integer.MAX_VALUE) {
+                throw new IOException("Архивы ZIP64 не поддерживаются");
+            }
+
+            ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+            List<Entry> entries = new ArrayList<>();
+
+            int pos = 0;
+            while (pos + 46 <= directory.limit() && directory.getInt(pos) == CENTRAL_SIGNATURE)
+            {
+                int nameLength = directory.getShort(pos + 28) & 0xFFFF;
+                int extraLength = directory.getShort(pos + 30) & 0xFFFF;
+                int commentLength = directory.getShort(pos + 32) & 0xFFFF;
+
+                byte[] name = new byte[nameLength];
+                directory.get(pos + 46, name);
+
+                Entry entry = new Entry();
+                entry.path = new String(name, StandardCharsets.UTF_8);
+                entry.method = directory.getShort(pos + 10) & 0xFFFF;
+                entry.crc = directory.getInt(pos + 16) & ZIP64_MARKER;
+                entry.compressedSize = directory.getInt(pos + 20) & ZIP64_MARKER;
+                entry.size = directory.getInt(pos + 24) & ZIP64_MARKER;
+                entry.offset = directory.getInt(pos + 42) & ZIP64_MARKER;
+
+                if (entry.offset == ZIP64_MARKER || entry.size == ZIP64_MARKER || entry.compressedSize == ZIP64_MARKER) {
+                    throw new IOException("Архивы ZIP64 не поддерживаются");
+                }
+
+                if (!entry.path.endsWith("/")) {
+                    entries.add(entry);
+                }
+
+                pos += 46 + nameLength + extraLength + commentLength;
+            }
+
+            return entries;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Архив обрезан");
+            }
+        }
+
+        return buffer.clear();
+    }
+
+    /**
+     * Делит список пополам, пока в куске больше SPLIT_BYTES и больше одного файла.
+     */
+    private static final class VerifyTask extends RecursiveTask<List<Entry>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+        private final List<Entry> entries;
+        private final boolean full;
+
+        VerifyTask(Path root, List<Entry> entries, boolean full)
+        {
+            this.root = root;
+            this.entries = entries;
+            this.full = full;
+        }
+
+        @Override
+        protected List<Entry> compute()
+        {
+            long bytes = entries.stream().mapToLong(e -> e.size).sum();
+
+            if (entries.size() > 1 && bytes > SPLIT_BYTES)
+            {
+                int middle = entries.size() / 2;
+                VerifyTask left = new VerifyTask(root, entries.subList(0, middle), full);
+                VerifyTask right = new VerifyTask(root, entries.subList(middle, entries.size()), full);
+
+                left.fork();
+                List<Entry> damaged = new ArrayList<>(right.compute());
+                damaged.addAll(left.join());
+                return damaged;
+            }
+
+            List<Entry> damaged = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (!check(root, entry, full)) damaged.add(entry);
+            }
+
+            return damaged;
+        }
+    }
+}
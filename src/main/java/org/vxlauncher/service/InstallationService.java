@@ -6,14 +6,52 @@
 
 package org.vxlauncher.service;
 
+import org.vxlauncher.model.DownloadResult;
 import org.vxlauncher.model.OSType;
 import org.vxlauncher.model.ReleaseInfo;
+import org.vxlauncher.model.VersionMetadata;
+import com.google.gson.Gson;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+/**
+ * Установка идёт в скрытую папку {@code versions/.<версия>.staging}: загрузка, распаковка, метка .version.json.
+ * Только готовая папка переносится на место {@code versions/<версия>} одним переименованием, так что
+ * запуск никогда не видит недописанную установку, а прерванная продолжается с того же места.
+ */
 public class InstallationService
 {
+    public static final String METADATA_FILE = ".version.json";
+
+    // одинаковые с уже установленными версиями файлы сразу заменяются ссылками
+    private static final boolean DEDUP = Boolean.parseBoolean(System.getProperty("vxlauncher.dedup", "true"));
+    private static final String CHECKPOINT_FILE = ".unzip.log";
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final Gson GSON = new Gson();
+
     private final FileService fileService;
     private final DownloadService downloadService;
     private final OSType osType;
@@ -27,54 +65,558 @@ public class InstallationService
         this.versionsDir = versionsDir;
     }
 
-    public void install(ReleaseInfo release, Consumer<String> logger, Consumer<Integer> progressCallback)
+    public void install(ReleaseInfo release, Consumer<String> logger, ProgressListener progress)
+            throws Exception
+    {
+        install(release, logger, progress, new DownloadControl());
+    }
+
+    public void install(ReleaseInfo release, Consumer<String> logger, ProgressListener progress, DownloadControl control)
             throws Exception
     {
-        String versionDir = versionsDir + java.io.File.separator + release.getVersion();
-        fileService.createDirectories(versionDir);
+        Path target = Paths.get(versionsDir, release.getVersion());
+        Path staging = stagingDir(release.getVersion());
+        Path downloadPath = staging.resolve(release.getFileName());
+        boolean zip = osType == OSType.WINDOWS && release.getFileName().endsWith(".zip");
+
+        fileService.restoreDirectory(target);
+        Files.createDirectories(staging);
+
+        if (Files.exists(staging.resolve(METADATA_FILE)))
+        {
+            logger.accept("Завершение прерванной установки " + release.getVersion());
+        }
+        else
+        {
+            String expectedHash = build(release, logger, progress, control, staging, downloadPath, zip);
+            InstallManifest files = recordFiles(staging, downloadPath, expectedHash, zip, logger);
+
+            String executable = resolveExecutable(staging, files);
+            if (executable != null) {
+                logger.accept("Исполняемый файл: " + executable);
+            }
+
+            if (osType == OSType.LINUX && executable != null)
+            {
+                logger.accept("Установка прав на исполнение...");
+
+                if(fileService.setExecutable(staging.resolve(executable)))
+                {
+                    logger.accept("Установка прав на исполнение - успех");
+                }
+                else
+                {
+                    logger.accept("Установка прав на исполнение - провал");
+                }
+            }
+
+            // у замененных ссылками файлов mtime оригинала - переписываем список, чтобы проверка их не перехешировала
+            if (DEDUP && zip && files != null && deduplicate(staging, logger)) {
+                files = recordFiles(staging, downloadPath, expectedHash, zip, logger);
+            }
+
+            writeMetadata(staging, new VersionMetadata(release.getVersion(), release.getFileName(),
+                    expectedHash, System.currentTimeMillis(), executable));
+        }
+
+        if (zip) {
+            Files.deleteIfExists(downloadPath);
+        }
 
-        Path downloadPath = Paths.get(versionDir, release.getFileName());
+        Files.deleteIfExists(staging.resolve(CHECKPOINT_FILE));
+        fileService.replaceDirectory(staging, target);
+    }
+
+    /**
+     * Скачивает и распаковывает релиз в staging. Архив, докачанный до сбоя, повторно не загружается,
+     * а распаковка продолжается с последней готовой записи.
+     * @return ожидаемый SHA-256 релиза или пустая строка
+     */
+    private String build(ReleaseInfo release, Consumer<String> logger, ProgressListener progress, DownloadControl control,
+                         Path staging, Path downloadPath, boolean zip) throws Exception
+    {
+        BlockManifest manifest = loadManifest(release, logger);
+
+        String expectedHash = !release.getSha256().isEmpty() ? release.getSha256()
+                : manifest != null ? manifest.getSha256() : "";
+
+        if (isDownloaded(release, downloadPath, expectedHash))
+        {
+            logger.accept("Файл уже загружен, продолжаем установку");
+
+            if (zip)
+            {
+                logger.accept("Распаковка архива...");
+                fileService.unzip(downloadPath, staging, staging.resolve(CHECKPOINT_FILE));
+            }
+
+            return expectedHash;
+        }
+
+        Path seed = manifest != null ? findSeed(release).orElse(null) : null;
+
+        if (seed != null) {
+            logger.accept("Дельта-обновление от версии " + seed.getParent().getFileName());
+        }
+
+        // zip распаковывается прямо по ходу загрузки, в установку попадает только после проверки хеша
+        StreamingUnzip unzip = zip
+                ? new StreamingUnzip(DownloadService.partFile(downloadPath), staging.resolve(StreamingUnzip.STAGING_DIR), progress)
+                : null;
+
+        try {
+            if (unzip != null) {
+                unzip.start();
+            }
+
+            downloadAndUnpack(release, logger, progress, control, staging, downloadPath, expectedHash, manifest, seed, unzip);
+        } finally
+        {
+            if (unzip != null) {
+                unzip.abort();
+            }
+        }
+
+        return expectedHash;
+    }
 
+    private void downloadAndUnpack(ReleaseInfo release, Consumer<String> logger, ProgressListener progress, DownloadControl control,
+                                   Path staging, Path downloadPath, String expectedHash, BlockManifest manifest, Path seed,
+                                   StreamingUnzip unzip) throws Exception
+    {
         logger.accept("Загрузка: " + release.getDownloadUrl());
-        downloadService.downloadFile(release.getDownloadUrl(), downloadPath, progressCallback);
+        DownloadResult result = downloadService.downloadFile(release.getDownloadUrls(), downloadPath,
+                unzip != null ? unzip : progress, control, expectedHash, manifest, seed);
+
+        if (control.isStopped()) {
+            throw control.getStopReason();
+        }
 
-        if (!release.getSha256().isEmpty())
+        if (!expectedHash.isEmpty())
         {
             logger.accept("Проверка контрольной суммы...");
-            String calculatedHash = fileService.calculateSHA256(downloadPath);
 
-            if (!calculatedHash.equalsIgnoreCase(release.getSha256())) {
-                throw new Exception("Контрольная сумма не совпадает!");
+            if (!checksumMatches(result, downloadPath, expectedHash))
+            {
+                if (seed == null) {
+                    throw new Exception("Контрольная сумма не совпадает!");
+                }
+
+                logger.accept("Контрольная сумма после дельты не совпала, загружаем файл целиком");
+                fileService.deleteFile(downloadPath);
+
+                // распакованное по ходу дельты уже не годится, остаток распакуем обычным способом
+                if (unzip != null) {
+                    unzip.abort();
+                }
+
+                result = downloadService.downloadFile(release.getDownloadUrls(), downloadPath, progress, control);
+
+                if (control.isStopped()) {
+                    throw control.getStopReason();
+                }
+
+                if (!checksumMatches(result, downloadPath, expectedHash)) {
+                    throw new Exception("Контрольная сумма не совпадает!");
+                }
             }
 
             logger.accept("Контрольная сумма проверена ✓");
         }
 
-        if (osType == OSType.WINDOWS && release.getFileName().endsWith(".zip"))
+        if (unzip != null)
         {
             logger.accept("Распаковка архива...");
 
-            fileService.unzip(downloadPath, Paths.get(versionDir));
-            fileService.deleteFile(downloadPath);
+            if (!unzip.finish(downloadPath, staging)) {
+                fileService.unzip(downloadPath, staging, staging.resolve(CHECKPOINT_FILE));
+            }
+        }
+    }
+
+    /**
+     * Файл релиза целиком лежит в staging с прошлой попытки (.part переименовывается только в конце загрузки).
+     */
+    private boolean isDownloaded(ReleaseInfo release, Path file, String expectedHash) throws Exception
+    {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+
+        boolean valid = !expectedHash.isEmpty()
+                ? fileService.calculateSHA256(file).equalsIgnoreCase(expectedHash)
+                : release.getSize() <= 0 || Files.size(file) == release.getSize();
+
+        if (!valid) {
+            Files.delete(file);
+        }
+
+        return valid;
+    }
+
+    private static void move(Path from, Path to) throws IOException
+    {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to);
         }
-        else if (osType == OSType.LINUX && release.getFileName().endsWith(".AppImage"))
+    }
+
+    private Path stagingDir(String version) {
+        return Paths.get(versionsDir, "." + version + ".staging");
+    }
+
+    private static void writeMetadata(Path dir, VersionMetadata metadata) throws IOException
+    {
+        Path tmp = dir.resolve(METADATA_FILE + ".tmp");
+        Files.writeString(tmp, GSON.toJson(metadata), StandardCharsets.UTF_8);
+        move(tmp, dir.resolve(METADATA_FILE));
+    }
+
+    /**
+     * Сохраняет список установленных файлов для проверки и восстановления. Без него версия
+     * работает, просто чинится только переустановкой.
+     */
+    private InstallManifest recordFiles(Path staging, Path downloadPath, String sha256, boolean zip, Consumer<String> logger)
+    {
+        try {
+            InstallManifest files = zip
+                    ? InstallManifest.fromArchive(downloadPath, sha256, staging)
+                    : InstallManifest.fromFile(downloadPath, sha256);
+
+            files.save(staging);
+            return files;
+        } catch (IOException e) {
+            logger.accept("Список файлов не записан, восстановление версии будет недоступно: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return были ли файлы заменены ссылками
+     */
+    private boolean deduplicate(Path staging, Consumer<String> logger)
+    {
+        try {
+            Deduplicator.Report report = fileService.deduplicate(Paths.get(versionsDir), staging);
+
+            if (report.linked() > 0) {
+                logger.accept("Общих файлов с другими версиями: " + report.linked()
+                        + ", сэкономлено " + report.reclaimed() / (1024 * 1024) + " MB");
+            }
+
+            return report.linked() > 0;
+        } catch (IOException e) {
+            logger.accept("Поиск общих файлов с другими версиями не удался: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Исполняемый файл выбирается один раз при установке, по списку файлов, если он есть,
+     * и сохраняется в метке, чтобы запуск не обходил папку версии.
+     */
+    private String resolveExecutable(Path staging, InstallManifest files)
+    {
+        String extension = osType.getExecutableExtension();
+
+        if (files != null) {
+            return FileService.chooseExecutable(files.getFiles().stream().map(InstallManifest.Entry::getPath).toList(), extension);
+        }
+
+        java.io.File found = fileService.findExecutable(staging.toString(), extension);
+        return found != null ? staging.relativize(found.toPath()).toString().replace(java.io.File.separatorChar, '/') : null;
+    }
+
+    /**
+     * Проверяет установленную версию по списку файлов и восстанавливает только повреждённые:
+     * из архива в хранилище, если он там есть, иначе докачивает нужные записи архива диапазонами.
+     * @param full хешировать все файлы, а не только с изменившимися размером или mtime
+     * @return сколько файлов восстановлено
+     */
+    public int repair(ReleaseInfo release, Consumer<String> logger, ProgressListener progress, boolean full)
+            throws Exception
+    {
+        Path dir = Paths.get(versionsDir, release.getVersion());
+
+        if (ColdStorage.isCold(dir)) {
+            throw new Exception("Версия " + release.getVersion() + " упакована, запустите её - она распакуется");
+        }
+
+        InstallManifest manifest = InstallManifest.load(dir);
+
+        if (manifest == null) {
+            throw new Exception("Для версии " + release.getVersion() + " нет списка файлов, переустановите её");
+        }
+
+        logger.accept("Проверка файлов версии " + release.getVersion() + "...");
+        List<InstallManifest.Entry> damaged = manifest.verify(dir, full);
+
+        if (damaged.isEmpty())
         {
-            logger.accept("Установка прав на исполнение...");
+            manifest.save(dir);
+            logger.accept("Все файлы целы ✓");
+            return 0;
+        }
 
-            if(fileService.setExecutable(downloadPath))
-            {
-                logger.accept("Установка прав на исполнение - успех");
+        logger.accept("Повреждено файлов: " + damaged.size());
+
+        if (manifest.isArchive()) {
+            repairEntries(release, manifest, damaged, dir, logger);
+        } else {
+            repairFile(release, manifest, damaged.get(0), dir, logger, progress);
+        }
+
+        for (InstallManifest.Entry entry : damaged) {
+            manifest.refresh(dir, entry);
+        }
+
+        manifest.save(dir);
+        logger.accept("Восстановлено файлов: " + damaged.size());
+        return damaged.size();
+    }
+
+    private void repairEntries(ReleaseInfo release, InstallManifest manifest, List<InstallManifest.Entry> damaged,
+                               Path dir, Consumer<String> logger) throws Exception
+    {
+        ArtifactStore store = downloadService.getArtifactStore();
+        String sha256 = manifest.getArchiveSha256();
+
+        if (store != null && sha256 != null && store.contains(sha256))
+        {
+            Path archive = dir.resolve(manifest.getArchive() + ".repair");
+
+            try {
+                if (store.restore(sha256, archive))
+                {
+                    logger.accept("Восстановление из сохранённого архива");
+
+                    try (ZipFile zip = new ZipFile(archive.toFile()))
+                    {
+                        for (InstallManifest.Entry entry : damaged)
+                        {
+                            ZipEntry source = zip.getEntry(entry.getPath());
+                            if (source == null) {
+                                throw new IOException("В архиве нет файла " + entry.getPath());
+                            }
+
+                            try (InputStream in = zip.getInputStream(source)) {
+                                writeEntry(in, entry, dir);
+                            }
+                        }
+                    }
+
+                    return;
+                }
+            } finally {
+                Files.deleteIfExists(archive);
             }
-            else
+        }
+
+        logger.accept("Загрузка повреждённых файлов из архива на сервере");
+
+        for (InstallManifest.Entry entry : damaged)
+        {
+            logger.accept("Загрузка " + entry.getPath());
+            fetchEntry(release, entry, dir);
+        }
+    }
+
+    /**
+     * Докачивает одну запись архива: сначала локальный заголовок (длина имени и extra в нём
+     * может отличаться от центрального каталога), затем только сжатые данные.
+     */
+    private void fetchEntry(ReleaseInfo release, InstallManifest.Entry entry, Path dir) throws IOException
+    {
+        if (entry.getCompressedSize() == 0)
+        {
+            writeEntry(InputStream.nullInputStream(), entry, dir);
+            return;
+        }
+
+        ByteBuffer header;
+        try (InputStream in = downloadService.openRange(release.getDownloadUrls(), entry.getOffset(), LOCAL_HEADER_SIZE)) {
+            header = ByteBuffer.wrap(in.readNBytes(LOCAL_HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (header.limit() < LOCAL_HEADER_SIZE || header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Архив на сервере не совпадает со списком файлов: " + entry.getPath());
+        }
+
+        long data = entry.getOffset() + LOCAL_HEADER_SIZE
+                + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+
+        try (InputStream raw = downloadService.openRange(release.getDownloadUrls(), data, entry.getCompressedSize()))
+        {
+            switch (entry.getMethod())
             {
-                logger.accept("Установка прав на исполнение - провал");
+                case ZipEntry.STORED -> writeEntry(raw, entry, dir);
+                case ZipEntry.DEFLATED ->
+                {
+                    // inflater без заголовка zlib требует лишний байт в конце входа
+                    Inflater inflater = new Inflater(true);
+                    try (InputStream in = new InflaterInputStream(
+                            new SequenceInputStream(raw, new ByteArrayInputStream(new byte[1])), inflater)) {
+                        writeEntry(in, entry, dir);
+                    } finally {
+                        inflater.end();
+                    }
+                }
+                default -> throw new IOException("Метод сжатия " + entry.getMethod() + " не поддерживается: " + entry.getPath());
             }
         }
     }
 
-    public boolean isVersionInstalled(String version)
+    /**
+     * Пишет файл рядом во временный, сверяет размер и CRC и только потом подменяет повреждённый.
+     */
+    private static void writeEntry(InputStream in, InstallManifest.Entry entry, Path dir) throws IOException
+    {
+        Path target = ZipExtractor.resolve(dir.toAbsolutePath().normalize(), entry.getPath());
+        Path tmp = target.resolveSibling(target.getFileName() + ".repair");
+        Files.createDirectories(target.getParent());
+
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        ZipExtractor.copy(checked, tmp);
+
+        if (checked.getChecksum().getValue() != entry.getCrc() || Files.size(tmp) != entry.getSize())
+        {
+            Files.deleteIfExists(tmp);
+            throw new IOException("Восстановленный файл не совпал с архивом: " + entry.getPath());
+        }
+
+        // переименование поверх разрывает жёсткую ссылку - другие версии остаются при старом файле
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Файл релиза без архива скачивается заново, по возможности дельтой от повреждённой копии.
+     */
+    private void repairFile(ReleaseInfo release, InstallManifest manifest, InstallManifest.Entry entry, Path dir,
+                            Consumer<String> logger, ProgressListener progress) throws Exception
+    {
+        Path file = dir.resolve(entry.getPath());
+        Path tmp = dir.resolve(entry.getPath() + ".repair");
+
+        BlockManifest blocks = loadManifest(release, logger);
+        Path seed = blocks != null && Files.isRegularFile(file) ? file : null;
+        String expectedHash = manifest.getArchiveSha256() != null ? manifest.getArchiveSha256() : "";
+
+        logger.accept("Загрузка: " + release.getDownloadUrl());
+        DownloadResult result = downloadService.downloadFile(release.getDownloadUrls(), tmp, progress, new DownloadControl(),
+                expectedHash, blocks, seed);
+
+        if (!expectedHash.isEmpty() && !checksumMatches(result, tmp, expectedHash))
+        {
+            Files.deleteIfExists(tmp);
+            throw new Exception("Контрольная сумма не совпадает!");
+        }
+
+        if (osType == OSType.LINUX && entry.getPath().endsWith(".AppImage")) {
+            fileService.setExecutable(tmp);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private boolean checksumMatches(DownloadResult result, Path file, String expected) throws Exception
+    {
+        String calculatedHash = result.hasSha256()
+                ? result.getSha256()
+                : fileService.calculateSHA256(file);
+
+        return calculatedHash.equalsIgnoreCase(expected);
+    }
+
+    private BlockManifest loadManifest(ReleaseInfo release, Consumer<String> logger)
+    {
+        if (release.getBlockManifestUrl() == null) {
+            return null;
+        }
+
+        try {
+            return BlockManifest.load(release.getBlockManifestUrl());
+        } catch (IOException e) {
+            logger.accept("Манифест блоков недоступен, дельта-обновление отключено: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Файл того же типа из другой установленной версии, самый свежий - он ближе всего к новому.
+     */
+    private Optional<Path> findSeed(ReleaseInfo release)
+    {
+        String name = release.getFileName();
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+
+        Path root = Paths.get(versionsDir);
+
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            return files
+                    .filter(f -> root.relativize(f).getNameCount() == 2)
+                    .filter(f -> !f.getParent().getFileName().toString().equals(release.getVersion()))
+                    .filter(f -> !f.getParent().getFileName().toString().startsWith("."))
+                    .filter(f -> f.getFileName().toString().endsWith("." + extension))
+                    .filter(Files::isRegularFile)
+                    .max(Comparator.comparingLong(f -> f.toFile().lastModified()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    public boolean isVersionInstalled(String version) {
+        return readMetadata(version) != null;
+    }
+
+    /**
+     * Метка установленной версии. У установок, сделанных до появления метки, известны
+     * только имя и время папки.
+     * @return null, если версия не установлена
+     */
+    public VersionMetadata readMetadata(String version)
     {
         String versionDir = versionsDir + java.io.File.separator + version;
-        return fileService.directoryExists(versionDir) && !fileService.isDirectoryEmpty(versionDir);
+        if (!fileService.directoryExists(versionDir) || fileService.isDirectoryEmpty(versionDir)) {
+            return null;
+        }
+
+        Path dir = Paths.get(versionDir);
+        Path marker = dir.resolve(METADATA_FILE);
+
+        try {
+            if (Files.exists(marker))
+            {
+                try {
+                    VersionMetadata metadata = GSON.fromJson(Files.readString(marker, StandardCharsets.UTF_8), VersionMetadata.class);
+                    if (metadata != null) return metadata;
+                } catch (Exception e) {
+                    System.err.println("--> Метка " + marker + " повреждена: " + e.getMessage());
+                }
+
+                // метка пишется последней, раз она есть - установка целая
+                return new VersionMetadata(version, null, null, Files.getLastModifiedTime(marker).toMillis());
+            }
+
+            // установки, сделанные до появления метки, распаковывались прямо в папку версии
+            try (Stream<Path> files = Files.list(dir))
+            {
+                if (files.anyMatch(f -> !DownloadService.isPartial(f))) {
+                    return new VersionMetadata(version, null, null, Files.getLastModifiedTime(dir).toMillis());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("--> Не удалось прочитать " + versionDir + ": " + e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Удаляет недокачанную установку версии после отмены. Готовая папка версии не трогается.
+     */
+    public void discard(ReleaseInfo release) throws IOException {
+        fileService.deleteDirectory(stagingDir(release.getVersion()));
     }
-}
\ No newline at end of file
+}
@@ -8,11 +8,17 @@ package org.vxlauncher.service;
 
 import org.vxlauncher.AppInfo;
 import org.vxlauncher.model.OSType;
+import org.vxlauncher.model.VersionMetadata;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 public class LaunchService
@@ -20,42 +26,145 @@ public class LaunchService
     private final FileService fileService;
     private final OSType osType;
     private final String versionsDir;
+    private final VersionRegistry versions;
+    private final ColdStorage cold;
 
-    public LaunchService(FileService fileService, OSType osType, String versionsDir)
+    // запущенные процессы по версиям - такие версии не упаковываются
+    private final Map<String, Process> running = new ConcurrentHashMap<>();
+
+    // найденное обходом папки для версий без записанного исполняемого файла
+    private final Map<String, File> scanned = new ConcurrentHashMap<>();
+
+    public LaunchService(FileService fileService, OSType osType, String versionsDir) {
+        this(fileService, osType, versionsDir, null, null);
+    }
+
+    /**
+     * @param versions откуда брать исполняемый файл, записанный при установке; null - всегда искать обходом
+     * @param cold     где лежат упакованные версии; null - версии не упаковываются
+     */
+    public LaunchService(FileService fileService, OSType osType, String versionsDir, VersionRegistry versions, ColdStorage cold)
     {
         this.fileService = fileService;
         this.osType = osType;
         this.versionsDir = versionsDir;
+        this.versions = versions;
+        this.cold = cold;
     }
 
     public void launch(String version, Consumer<String> logger)
             throws Exception
+    {
+        launch(version, logger, ProgressListener.NONE);
+    }
+
+    /**
+     * @param progress ход распаковки, если версия была упакована
+     */
+    public void launch(String version, Consumer<String> logger, ProgressListener progress)
+            throws Exception
     {
         logger.accept("Запуск " + AppInfo.getGameName() + " версии " + version);
 
+        // упаковка и удаление версии ждут, пока процесс и время запуска не будут записаны
+        Lock lock = cold != null ? cold.lock(version) : new ReentrantLock();
+        if (!lock.tryLock())
+        {
+            logger.accept("Версия сейчас упаковывается, ожидание...");
+            lock.lock();
+        }
+
+        Process process;
+
+        try {
+            process = start(version, logger, progress);
+            if (process == null) return;
+
+            running.put(version, process);
+
+            if (cold != null) {
+                cold.recordLaunch(version);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.accept("[Процесс] " + line);
+                }
+            } catch (Exception e) {
+
+            }
+        }).start();
+
+        new Thread(() -> {
+            try {
+                int exitCode = process.waitFor();
+                logger.accept("Процесс завершился с кодом: " + exitCode);
+                running.remove(version, process);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).start();
+
+        logger.accept("Игра запущена (PID: " + process.pid() + ")");
+    }
+
+    /**
+     * Распаковывает версию, если нужно, и запускает игру.
+     * @return процесс или null, если запуск на этой ОС не поддерживается
+     */
+    private Process start(String version, Consumer<String> logger, ProgressListener progress)
+            throws Exception
+    {
         String versionDir = versionsDir + File.separator + version;
 
+        if (cold != null && cold.isCold(version))
+        {
+            logger.accept("Версия давно не запускалась и упакована, распаковка...");
+            cold.rehydrate(version, progress);
+
+            if (versions != null) {
+                versions.refresh(version);
+            }
+
+            logger.accept("Версия распакована ✓");
+        }
+
+        if (Deduplicator.HARDLINKS)
+        {
+            // игра пишет в свои файлы на месте - общий с другими версиями файл получает свою копию
+            int unshared = Deduplicator.unshare(Paths.get(versionDir));
+
+            if (unshared > 0) {
+                logger.accept("Общих с другими версиями файлов скопировано: " + unshared);
+            }
+        }
+
         ProcessBuilder pb;
 
         switch (osType)
         {
             case WINDOWS: {
-                File exeFile = fileService.findExecutable(versionDir, ".exe");
+                File exeFile = executable(version, versionDir);
                 if (exeFile == null) throw new Exception("Исполняемый файл не найден");
 
-                pb = new ProcessBuilder("cmd", "/c", "start", "\"\"",
-                        "\"" + exeFile.getAbsolutePath() + "\"");
+                // сам exe, а не cmd /c start: тот сразу завершается, и запущенная игра выглядела бы остановленной
+                pb = new ProcessBuilder(exeFile.getAbsolutePath());
                 break;
             }
 
             case MACOS: {
                 logger.accept("Для macOS требуется ручная установка .dmg файла");
-                return;
+                return null;
             }
 
             case LINUX: {
-                logger.accept("Поиск AppImage в: " + versionDir);
-                File appImage = fileService.findExecutable(versionDir, ".AppImage");
+                File appImage = executable(version, versionDir);
 
                 if (appImage == null) {
                     logger.accept("Содержимое директории: " + Arrays.toString(new File(versionDir).list()));
@@ -63,7 +172,6 @@ public class LaunchService
                 }
 
                 logger.accept("Найден AppImage: " + appImage.getAbsolutePath());
-                fileService.setExecutable(appImage.toPath());
                 pb = new ProcessBuilder(appImage.getAbsolutePath());
                 break;
             }
@@ -77,29 +185,48 @@ public class LaunchService
 
         pb.redirectErrorStream(true);
 
-        Process process = pb.start();
+        return pb.start();
+    }
 
-        new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    logger.accept("[Процесс] " + line);
-                }
-            } catch (Exception e) {
+    public boolean isRunning(String version)
+    {
+        Process process = running.get(version);
+        return process != null && process.isAlive();
+    }
 
-            }
-        }).start();
+    /**
+     * Исполняемый файл из метки установки - одна проверка существования. Если его нет
+     * в метке или файл пропал, папка обходится один раз и результат запоминается.
+     */
+    private File executable(String version, String versionDir)
+    {
+        VersionMetadata metadata = versions != null ? versions.get(version) : null;
 
-        new Thread(() -> {
-            try {
-                int exitCode = process.waitFor();
-                logger.accept("Процесс завершился с кодом: " + exitCode);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+        if (metadata != null && metadata.getExecutable() != null)
+        {
+            File recorded = new File(versionDir, metadata.getExecutable());
+            if (recorded.isFile()) return recorded;
 
-        logger.accept("Игра запущена (PID: " + process.pid() + ")");
+            System.out.println("--> Записанный исполняемый файл " + recorded + " не найден, ищем заново");
+        }
+
+        File cached = scanned.get(version);
+        if (cached != null && cached.isFile()) {
+            return cached;
+        }
+
+        File found = fileService.findExecutable(versionDir, osType.getExecutableExtension());
+        if (found == null) {
+            scanned.remove(version);
+            return null;
+        }
+
+        // старые установки могли остаться без бита исполнения
+        if (osType == OSType.LINUX && !found.canExecute()) {
+            fileService.setExecutable(found.toPath());
+        }
+
+        scanned.put(version, found);
+        return found;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+//////////////////////////////////////////////////////
+//// @File service/MetadataCache.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Что сервер ответил про адрес: размер, ETag, поддержка диапазонов и куда ведёт редирект.
+ * Живёт недолго: ссылки, на которые редиректит GitHub, подписаны и быстро истекают.
+ */
+public final class MetadataCache
+{
+    private static final long TTL_MILLIS = 10 * 60 * 1000;
+
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private MetadataCache() {
+    }
+
+    static DownloadService.DownloadMetadata get(String url)
+    {
+        Entry entry = ENTRIES.get(url);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() - entry.time > TTL_MILLIS)
+        {
+            ENTRIES.remove(url, entry);
+            return null;
+        }
+
+        return entry.meta;
+    }
+
+    static void put(String url, DownloadService.DownloadMetadata meta) {
+        ENTRIES.put(url, new Entry(meta, System.currentTimeMillis()));
+    }
+
+    static void invalidate(String url) {
+        ENTRIES.remove(url);
+    }
+
+    private record Entry(DownloadService.DownloadMetadata meta, long time)
+    {
+    }
+}
@@ -0,0 +1,274 @@
+//////////////////////////////////////////////////////
+//// @File service/MirrorSet.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.vxlauncher.AppInfo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Зеркала одного файла. Каждый кусок уходит на зеркало, выбранное случайно с весом,
+ * пропорциональным измеренной скорости хоста. Оценки хостов сохраняются между запусками.
+ */
+public class MirrorSet
+{
+    private static final Path HEALTH_FILE = Paths.get(AppInfo.getAppDir(), "mirrors.json");
+    private static final Gson GSON = new Gson();
+
+    private static final double DEFAULT_RATE = 1024 * 1024; // 1 MB/s, пока хост не измерен
+    private static final double RATE_ALPHA = 0.3;
+    private static final long MIN_SAMPLE_BYTES = 256 * 1024;
+
+    private static final Map<String, Health> HEALTH = loadHealth();
+
+    private final List<Mirror> mirrors;
+    private final ProbeResponse probe;
+
+    public MirrorSet(List<Mirror> mirrors) {
+        this(mirrors, null);
+    }
+
+    /**
+     * @param probe ответ первого зеркала, тело которого ещё не прочитано, или null
+     */
+    MirrorSet(List<Mirror> mirrors, ProbeResponse probe)
+    {
+        this.mirrors = Collections.unmodifiableList(new ArrayList<>(mirrors));
+        this.probe = probe;
+    }
+
+    public List<Mirror> getMirrors() {
+        return mirrors;
+    }
+
+    public int size() {
+        return mirrors.size();
+    }
+
+    /**
+     * Отдаёт тело пробного ответа первого зеркала тому, кому нужен файл с нуля.
+     * @return завершение запроса или null, если пробного ответа нет или он уже забран
+     */
+    CompletableFuture<HttpResponse<Void>> adoptProbe(HttpResponse.BodyHandler<Void> handler) {
+        return probe != null ? probe.adopt(handler) : null;
+    }
+
+    /**
+     * Зеркало, которому принадлежит пробный ответ.
+     */
+    Mirror probeMirror() {
+        return mirrors.get(0);
+    }
+
+    void discardProbe()
+    {
+        if (probe != null) {
+            probe.discard();
+        }
+    }
+
+    /**
+     * Самое быстрое по оценке зеркало, чей хост сейчас не отключён предохранителем.
+     */
+    public Mirror best()
+    {
+        Mirror best = null;
+
+        for (Mirror m : mirrors)
+        {
+            if (best == null || available(m) && (!available(best) || score(m) > score(best))) {
+                best = m;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Зеркало для очередного куска: случайное с весом по скорости.
+     */
+    public Mirror pick()
+    {
+        double total = 0;
+
+        for (Mirror m : mirrors) {
+            if (available(m)) total += score(m);
+        }
+
+        if (total <= 0) {
+            return best();
+        }
+
+        double point = ThreadLocalRandom.current().nextDouble(total);
+
+        for (Mirror m : mirrors)
+        {
+            if (!available(m)) continue;
+
+            point -= score(m);
+            if (point < 0) return m;
+        }
+
+        return best();
+    }
+
+    public void onTransferred(Mirror mirror, long bytes, long nanos)
+    {
+        if (bytes < MIN_SAMPLE_BYTES || nanos <= 0) return;
+
+        Health health = health(mirror);
+        double rate = bytes * 1e9 / nanos;
+
+        synchronized (health)
+        {
+            health.rate = health.rate > 0 ? health.rate + RATE_ALPHA * (rate - health.rate) : rate;
+            health.failures = Math.max(0, health.failures - 1);
+        }
+    }
+
+    public void onFailure(Mirror mirror)
+    {
+        Health health = health(mirror);
+
+        synchronized (health) {
+            health.failures++;
+        }
+    }
+
+    private static boolean available(Mirror mirror) {
+        return !CircuitBreaker.forHost(mirror.getTarget().getHost()).isOpen();
+    }
+
+    private static double score(Mirror mirror)
+    {
+        Health health = health(mirror);
+
+        synchronized (health) {
+            return (health.rate > 0 ? health.rate : DEFAULT_RATE) / (1 + health.failures);
+        }
+    }
+
+    private static Health health(Mirror mirror) {
+        return HEALTH.computeIfAbsent(mirror.getHost(), h -> new Health());
+    }
+
+    private static Map<String, Health> loadHealth()
+    {
+        Map<String, Health> result = new ConcurrentHashMap<>();
+
+        if (!Files.exists(HEALTH_FILE)) {
+            return result;
+        }
+
+        try {
+            Map<String, Health> saved = GSON.fromJson(Files.readString(HEALTH_FILE, StandardCharsets.UTF_8),
+                    new TypeToken<Map<String, Health>>() {}.getType());
+
+            if (saved != null) {
+                result.putAll(saved);
+            }
+        } catch (Exception e) {
+            System.err.println("--> Ошибка чтения оценок зеркал: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Сохраняет оценки хостов в каталог лаунчера.
+     */
+    public static void saveHealth()
+    {
+        try {
+            Files.createDirectories(HEALTH_FILE.getParent());
+
+            Path tmp = HEALTH_FILE.resolveSibling(HEALTH_FILE.getFileName() + ".tmp");
+            Files.writeString(tmp, GSON.toJson(HEALTH), StandardCharsets.UTF_8);
+
+            try {
+                Files.move(tmp, HEALTH_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, HEALTH_FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("--> Ошибка сохранения оценок зеркал: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Один источник файла и то, что о нём ответил сервер.
+     */
+    public static final class Mirror
+    {
+        private final String url;
+        private final String host;
+        private final DownloadService.DownloadMetadata meta;
+        private volatile URI target;
+
+        Mirror(String url, DownloadService.DownloadMetadata meta)
+        {
+            this.url = url;
+            // у file: и прочих адресов без хоста здоровье копится под пустым именем
+            String host = URI.create(url).getHost();
+            this.host = host != null ? host : "";
+            this.meta = meta;
+            this.target = meta.target() != null ? meta.target() : URI.create(url);
+        }
+
+        public String getUrl() { return url; }
+        public String getHost() { return host; }
+        DownloadService.DownloadMetadata getMeta() { return meta; }
+
+        /**
+         * Куда слать запросы: конечный адрес после редиректов, если он известен.
+         */
+        public URI getTarget() {
+            return target;
+        }
+
+        public boolean isRedirected() {
+            return !target.toString().equals(url);
+        }
+
+        /**
+         * Конечный адрес перестал отвечать (истекла подпись) - дальше идём через исходный адрес.
+         */
+        void expireTarget()
+        {
+            target = URI.create(url);
+            MetadataCache.invalidate(url);
+        }
+
+        @Override
+        public String toString() {
+            return host;
+        }
+    }
+
+    private static final class Health
+    {
+        double rate;
+        int failures;
+    }
+}
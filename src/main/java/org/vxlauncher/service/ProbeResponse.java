@@ -0,0 +1,176 @@
+//////////////////////////////////////////////////////
+//// @File service/ProbeResponse.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Ответ на первый GET с Range: bytes=0-. По его заголовкам узнаём размер файла и поддержку
+ * диапазонов, а тело не выбрасываем: его забирает первое соединение, которому нужен файл
+ * с нулевого байта. Пока тело никто не забрал, данные у сервера не запрашиваются.
+ */
+public class ProbeResponse implements HttpResponse.BodySubscriber<Void>
+{
+    private final HttpResponse.ResponseInfo info;
+    private final DownloadService.DownloadMetadata meta;
+    private final CompletableFuture<Void> body = new CompletableFuture<>();
+    private final CompletableFuture<HttpResponse<Void>> response = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private HttpResponse.BodySubscriber<Void> target;
+    private boolean claimed;
+
+    ProbeResponse(HttpResponse.ResponseInfo info, DownloadService.DownloadMetadata meta)
+    {
+        this.info = info;
+        this.meta = meta;
+    }
+
+    DownloadService.DownloadMetadata getMeta() {
+        return meta;
+    }
+
+    /**
+     * Завершение всего запроса, к которому относится этот ответ.
+     */
+    CompletableFuture<HttpResponse<Void>> getResponse() {
+        return response;
+    }
+
+    /**
+     * Передаёт тело ответа подписчику, которого создаст handler, как будто это свежий запрос.
+     * @return завершение запроса или null, если тело уже забрано или соединение оборвалось
+     */
+    CompletableFuture<HttpResponse<Void>> adopt(HttpResponse.BodyHandler<Void> handler)
+    {
+        HttpResponse.BodySubscriber<Void> subscriber;
+        Flow.Subscription s;
+
+        synchronized (this)
+        {
+            if (claimed || body.isDone()) {
+                return null;
+            }
+
+            claimed = true;
+            s = subscription;
+
+            try {
+                subscriber = handler.apply(info);
+            } catch (RuntimeException e)
+            {
+                if (s != null) s.cancel();
+                body.completeExceptionally(e);
+                throw e;
+            }
+
+            target = subscriber;
+        }
+
+        subscriber.getBody().whenComplete((v, e) ->
+        {
+            if (e != null) body.completeExceptionally(e);
+            else body.complete(null);
+        });
+
+        if (s != null) {
+            subscriber.onSubscribe(s);
+        }
+
+        return response;
+    }
+
+    /**
+     * Закрывает ответ, если тело так никому и не понадобилось.
+     */
+    void discard()
+    {
+        Flow.Subscription s;
+
+        synchronized (this)
+        {
+            if (claimed) return;
+            claimed = true;
+            s = subscription;
+        }
+
+        if (s != null) {
+            s.cancel();
+        }
+
+        body.complete(null);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        HttpResponse.BodySubscriber<Void> t;
+        boolean discarded;
+
+        synchronized (this)
+        {
+            this.subscription = subscription;
+            t = target;
+            discarded = claimed && target == null;
+        }
+
+        if (t != null) {
+            t.onSubscribe(subscription);
+        } else if (discarded) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items)
+    {
+        // данные приходят только по запросу подписчика, который забрал тело
+        target.onNext(items);
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        HttpResponse.BodySubscriber<Void> t;
+
+        synchronized (this) {
+            t = target;
+        }
+
+        if (t != null) {
+            t.onError(throwable);
+        } else {
+            body.completeExceptionally(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete()
+    {
+        HttpResponse.BodySubscriber<Void> t;
+
+        synchronized (this) {
+            t = target;
+        }
+
+        if (t != null) {
+            t.onComplete();
+        } else {
+            body.complete(null);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> getBody() {
+        return body;
+    }
+}
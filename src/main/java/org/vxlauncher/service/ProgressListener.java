@@ -0,0 +1,69 @@
+//////////////////////////////////////////////////////
+//// @File service/ProgressListener.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.DownloadProgress;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Прогресс загрузки в байтах, без упаковки в объекты. Вызывается из потоков загрузки.
+ */
+@FunctionalInterface
+public interface ProgressListener
+{
+    ProgressListener NONE = (done, total) -> {};
+
+    /**
+     * @param done  сколько байт уже на диске
+     * @param total размер файла или -1, если неизвестен
+     */
+    void onProgress(long done, long total);
+
+    /**
+     * Источник статистики по активным соединениям многопоточной загрузки.
+     */
+    default void onConnections(Supplier<List<DownloadProgress.Connection>> source) {
+    }
+
+    /**
+     * Непрерывно записанное начало файла выросло до bytes: эти байты уже можно читать из .part файла.
+     */
+    default void onContiguous(long bytes) {
+    }
+
+    /**
+     * Редкие события загрузки: зависшие и оборванные соединения, повторы.
+     */
+    default void onEvent(String message) {
+    }
+
+    /**
+     * Переводит байты в проценты и зовёт callback только когда процент вырос.
+     */
+    static ProgressListener percent(IntConsumer callback)
+    {
+        if (callback == null) return NONE;
+
+        AtomicInteger last = new AtomicInteger(-1);
+
+        return (done, total) ->
+        {
+            if (total <= 0) return;
+
+            int pct = (int) Math.min(100, done * 100 / total);
+            int prev = last.get();
+
+            if (pct > prev && last.compareAndSet(prev, pct)) {
+                callback.accept(pct);
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+//////////////////////////////////////////////////////
+//// @File service/ProgressTracker.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.DownloadProgress;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Собирает прогресс со всех потоков загрузки и отдаёт снимки с фиксированной частотой
+ * (20 кадров в секунду), считая текущую и сглаженную скорость. Потоки загрузки только
+ * пишут два volatile поля и никогда не ходят в EDT сами.
+ */
+public class ProgressTracker implements ProgressListener, AutoCloseable
+{
+    private static final long FRAME_MS = 50; // 20 Hz
+    private static final double EWMA_WINDOW_SEC = 3.0;
+
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+        Thread t = new Thread(r, "progress-ticker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Consumer<DownloadProgress> sink;
+    private final Consumer<String> events;
+    private final ScheduledFuture<?> task;
+
+    private volatile long done;
+    private volatile long total = -1;
+    private volatile Supplier<List<DownloadProgress.Connection>> connections = Collections::emptyList;
+
+    private long lastDone = -1;
+    private long lastTime;
+    private double currentRate;
+    private double averageRate;
+    private long emittedDone = -1;
+    private double emittedRate = -1;
+    private double emittedAverage = -1;
+
+    public ProgressTracker(Consumer<DownloadProgress> sink) {
+        this(sink, message -> {});
+    }
+
+    public ProgressTracker(Consumer<DownloadProgress> sink, Consumer<String> events)
+    {
+        this.sink = sink;
+        this.events = events;
+        this.task = TICKER.scheduleAtFixedRate(this::tick, FRAME_MS, FRAME_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onProgress(long done, long total)
+    {
+        this.total = total;
+        this.done = done;
+    }
+
+    @Override
+    public void onConnections(Supplier<List<DownloadProgress.Connection>> source) {
+        this.connections = source;
+    }
+
+    @Override
+    public void onEvent(String message) {
+        events.accept(message);
+    }
+
+    private synchronized void tick()
+    {
+        long now = System.nanoTime();
+        long current = done;
+
+        if (lastDone < 0)
+        {
+            // первый замер - только база; при докачке done сразу большой, и это не скорость
+            if (current > 0)
+            {
+                lastDone = current;
+                lastTime = now;
+            }
+            return;
+        }
+
+        double dt = (now - lastTime) / 1e9;
+        if (dt <= 0) return;
+
+        currentRate = (current - lastDone) / dt;
+        double alpha = 1 - Math.exp(-dt / EWMA_WINDOW_SEC);
+        averageRate = averageRate == 0 ? currentRate : averageRate + alpha * (currentRate - averageRate);
+
+        lastDone = current;
+        lastTime = now;
+
+        // при зависании done стоит, а скорость падает - снимок нужен и тогда, иначе интерфейс покажет старую
+        if (current != emittedDone || currentRate != emittedRate || averageRate != emittedAverage) {
+            emit(current);
+        }
+    }
+
+    private void emit(long current)
+    {
+        emittedDone = current;
+        emittedRate = currentRate;
+        emittedAverage = averageRate;
+
+        try {
+            sink.accept(new DownloadProgress(current, total, currentRate, averageRate, connections.get()));
+        } catch (Exception e) {
+            System.err.println("--> Ошибка обработчика прогресса: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Останавливает тики и отправляет последний снимок.
+     */
+    @Override
+    public synchronized void close()
+    {
+        task.cancel(false);
+
+        if (done != emittedDone) {
+            emit(done);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+//////////////////////////////////////////////////////
+//// @File service/RangeScheduler.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.DownloadProgress;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Раздаёт соединениям небольшие куски файла. Когда очередь пуста, свободное соединение
+ * забирает себе хвост самого медленного куска. Число соединений подстраивается под
+ * измеренную суммарную скорость.
+ */
+public class RangeScheduler
+{
+    private static final long UNIT_SIZE = 4 * 1024 * 1024; // 4 MB
+    private static final long MIN_STEAL = 512 * 1024; // 512 KB
+    // дыры после дельты мелкие: пару десятков уже записанных КБ дешевле перекачать, чем открыть лишний запрос
+    private static final long MERGE_GAP = 64 * 1024; // 64 KB
+    private static final long SAMPLE_INTERVAL_NS = 1_000_000_000L;
+
+    private static final int MIN_CONNECTIONS = 2;
+    private static final int INITIAL_CONNECTIONS = 4;
+    private static final int MAX_CONNECTIONS = 8;
+
+    private final Deque<Segment> pending = new ArrayDeque<>();
+    private final List<Segment> active = new ArrayList<>();
+
+    private int connections;
+    private int targetConnections;
+    private boolean aborted;
+
+    private long transferred;
+    private long sampleBytes;
+    private long sampleTime = System.nanoTime();
+    private double lastRate;
+
+    public RangeScheduler(List<long[]> ranges)
+    {
+        for (long[] range : merge(ranges))
+        {
+            for (long start = range[0]; start < range[1]; start += UNIT_SIZE) {
+                pending.add(new Segment(start, Math.min(range[1], start + UNIT_SIZE)));
+            }
+        }
+
+        targetConnections = Math.max(1, Math.min(INITIAL_CONNECTIONS, pending.size()));
+    }
+
+    private static List<long[]> merge(List<long[]> ranges)
+    {
+        List<long[]> merged = new ArrayList<>(ranges.size());
+
+        for (long[] range : ranges)
+        {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+            if (last != null && range[0] - last[1] <= MERGE_GAP) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new long[]{range[0], range[1]});
+            }
+        }
+
+        return merged;
+    }
+
+    public synchronized int getTargetConnections() {
+        return targetConnections;
+    }
+
+    public synchronized void connectionOpened() {
+        connections++;
+    }
+
+    /**
+     * Соединение завершилось с ошибкой, не дойдя до next().
+     */
+    public synchronized void connectionFailed() {
+        connections--;
+    }
+
+    /**
+     * Все соединения завершились и работы не осталось.
+     */
+    public synchronized boolean isFinished() {
+        return connections == 0 && pending.isEmpty() && active.isEmpty();
+    }
+
+    /**
+     * Следующий кусок для соединения или null, если соединению пора завершиться - тогда
+     * соединение уже снято со счёта. Решение и уменьшение счётчика в одной блокировке:
+     * иначе после снижения цели все соединения могли выйти разом, бросив очередь.
+     * Последнее соединение не выходит, пока в очереди есть куски.
+     */
+    public synchronized Segment next()
+    {
+        if (aborted)
+        {
+            connections--;
+            return null;
+        }
+
+        if (connections > targetConnections && connections > 1)
+        {
+            connections--;
+            return null;
+        }
+
+        Segment segment = pending.pollFirst();
+        if (segment == null) {
+            segment = steal();
+        }
+
+        if (segment == null)
+        {
+            connections--;
+            return null;
+        }
+
+        segment.startedAt = System.nanoTime();
+        active.add(segment);
+        return segment;
+    }
+
+    public synchronized void finished(Segment segment) {
+        active.remove(segment);
+    }
+
+    /**
+     * Сколько соединений нужно открыть дополнительно по результатам последнего замера скорости.
+     */
+    public synchronized int connectionsToAdd()
+    {
+        if (aborted) return 0;
+
+        int available = pending.size() + (int) active.stream().filter(s -> s.remaining() >= MIN_STEAL * 2).count();
+        return Math.max(0, Math.min(targetConnections - connections, available));
+    }
+
+    public synchronized List<DownloadProgress.Connection> connectionStats()
+    {
+        List<DownloadProgress.Connection> stats = new ArrayList<>(active.size());
+
+        for (Segment s : active) {
+            stats.add(s.stats());
+        }
+
+        return stats;
+    }
+
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    public synchronized void abort()
+    {
+        aborted = true;
+        pending.clear();
+        active.forEach(Segment::truncate);
+    }
+
+    synchronized void onTransferred(long bytes)
+    {
+        transferred += bytes;
+
+        long now = System.nanoTime();
+        long elapsed = now - sampleTime;
+        if (elapsed < SAMPLE_INTERVAL_NS) return;
+
+        double rate = (transferred - sampleBytes) * 1e9 / elapsed;
+
+        if (lastRate > 0)
+        {
+            if (rate > lastRate * 1.1 && targetConnections < MAX_CONNECTIONS) {
+                targetConnections++;
+            } else if (rate < lastRate * 0.8 && targetConnections > MIN_CONNECTIONS) {
+                targetConnections--;
+            }
+        }
+
+        lastRate = rate;
+        sampleBytes = transferred;
+        sampleTime = now;
+    }
+
+    private Segment steal()
+    {
+        Segment victim = null;
+        double worstEta = 0;
+
+        for (Segment s : active)
+        {
+            long remaining = s.remaining();
+            if (remaining < MIN_STEAL * 2) continue;
+
+            double eta = remaining / Math.max(1.0, s.rate());
+            if (victim == null || eta > worstEta)
+            {
+                victim = s;
+                worstEta = eta;
+            }
+        }
+
+        return victim != null ? victim.split() : null;
+    }
+
+    /**
+     * Кусок файла [start, end). Конец может уменьшиться, если хвост забрало другое соединение.
+     */
+    public static class Segment
+    {
+        private final long start;
+        private long end;
+        private long position;
+        private long committed;
+        private long startedAt;
+
+        Segment(long start, long end)
+        {
+            this.start = start;
+            this.end = end;
+            this.position = start;
+            this.committed = start;
+        }
+
+        public long getStart() { return start; }
+        public synchronized long getEnd() { return end; }
+        public synchronized long getCommitted() { return committed; }
+
+        /**
+         * Резервирует до n байт для записи с текущей позиции.
+         * @return сколько байт можно записать (0 - кусок закончился)
+         */
+        public synchronized int reserve(int n)
+        {
+            int allowed = (int) Math.max(0, Math.min(n, end - position));
+            position += allowed;
+            return allowed;
+        }
+
+        public synchronized void commit(long upTo) {
+            committed = Math.max(committed, upTo);
+        }
+
+        /**
+         * Откатывает незаписанный резерв перед повторной попыткой.
+         */
+        public synchronized long rewind()
+        {
+            position = committed;
+            return committed;
+        }
+
+        public synchronized boolean isDone() {
+            return committed >= end;
+        }
+
+        synchronized long remaining() {
+            return end - position;
+        }
+
+        synchronized double rate()
+        {
+            long elapsed = System.nanoTime() - startedAt;
+            return elapsed > 0 ? (committed - start) * 1e9 / elapsed : 0;
+        }
+
+        synchronized DownloadProgress.Connection stats() {
+            return new DownloadProgress.Connection(start, committed, end, rate());
+        }
+
+        synchronized void truncate() {
+            end = position;
+        }
+
+        synchronized Segment split()
+        {
+            long mid = position + (end - position) / 2;
+            Segment tail = new Segment(mid, end);
+            end = mid;
+            return tail;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+//////////////////////////////////////////////////////
+//// @File service/ReleaseIndex.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.ReleaseInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разобранный список релизов под одну ОС в двоичном виде, чтобы при старте не разбирать JSON.
+ * Файл читается целиком одним чтением и разбирается прямо из буфера. Не отображается в память:
+ * отображение держит файл до сборки мусора, и на Windows новый индекс не встал бы на его место.
+ * <pre>
+ * заголовок   magic, формат, число релизов, число ссылок на зеркала, размер строк, время создания
+ * релизы      по RECORD_SIZE байт: версия, адрес, sha256, имя файла, block manifest (ссылки на строки),
+ *             размер, первое зеркало и их число
+ * зеркала     ссылки на строки
+ * строки      длина и UTF-8, одинаковые строки хранятся один раз
+ * </pre>
+ * Ссылка на строку - смещение в таблице строк, -1 - null. Файл другого формата или
+ * испорченный не читается - тогда список строится заново из JSON.
+ */
+public final class ReleaseIndex
+{
+    private static final int MAGIC = 0x56585249; // VXRI
+    private static final int FORMAT = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 8;
+    private static final int RECORD_SIZE = 5 * 4 + 8 + 4 + 4;
+
+    private static final int NULL = -1;
+
+    private ReleaseIndex() {
+        throw new UnsupportedOperationException("ReleaseIndex is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * @return релизы в порядке записи или null, если индекса нет или он не подходит
+     */
+    public static Map<String, ReleaseInfo> read(Path file)
+    {
+        if (!Files.isRegularFile(file)) return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) return null;
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) return null;
+            }
+
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) return null;
+
+            int count = buffer.getInt(8);
+            int mirrorCount = buffer.getInt(12);
+            int stringsSize = buffer.getInt(16);
+
+            if (count < 0 || mirrorCount < 0 || stringsSize < 0
+                    || HEADER_SIZE + (long) count * RECORD_SIZE + mirrorCount * 4L + stringsSize != size) {
+                return null;
+            }
+
+            int mirrorsOffset = HEADER_SIZE + count * RECORD_SIZE;
+            int stringsOffset = mirrorsOffset + mirrorCount * 4;
+
+            Strings strings = new Strings(buffer.slice(stringsOffset, stringsSize));
+            Map<String, ReleaseInfo> releases = new LinkedHashMap<>(count * 2);
+
+            for (int i = 0; i < count; i++)
+            {
+                int record = HEADER_SIZE + i * RECORD_SIZE;
+
+                int firstMirror = buffer.getInt(record + 28);
+                int mirrors = buffer.getInt(record + 32);
+
+                if (firstMirror < 0 || mirrors < 0 || firstMirror + mirrors > mirrorCount) return null;
+
+                List<String> mirrorUrls = new ArrayList<>(mirrors);
+                for (int m = 0; m < mirrors; m++) {
+                    mirrorUrls.add(strings.get(buffer.getInt(mirrorsOffset + (firstMirror + m) * 4)));
+                }
+
+                ReleaseInfo info = new ReleaseInfo(
+                        strings.get(buffer.getInt(record)),
+                        strings.get(buffer.getInt(record + 4)),
+                        strings.get(buffer.getInt(record + 8)),
+                        buffer.getLong(record + 20),
+                        strings.get(buffer.getInt(record + 12)),
+                        mirrorUrls,
+                        strings.get(buffer.getInt(record + 16)));
+
+                releases.put(info.getVersion(), info);
+            }
+
+            return releases;
+        } catch (IOException | RuntimeException e)
+        {
+            System.err.println("--> Индекс релизов повреждён: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void write(Path file, Map<String, ReleaseInfo> releases) throws IOException
+    {
+        StringTable strings = new StringTable();
+        List<Integer> mirrors = new ArrayList<>();
+
+        ByteBuffer records = ByteBuffer.allocate(releases.size() * RECORD_SIZE);
+
+        for (ReleaseInfo info : releases.values())
+        {
+            records.putInt(strings.add(info.getVersion()));
+            records.putInt(strings.add(info.getDownloadUrl()));
+            records.putInt(strings.add(info.getSha256()));
+            records.putInt(strings.add(info.getFileName()));
+            records.putInt(strings.add(info.getBlockManifestUrl()));
+            records.putLong(info.getSize());
+            records.putInt(mirrors.size());
+            records.putInt(info.getMirrorUrls().size());
+
+            for (String mirror : info.getMirrorUrls()) {
+                mirrors.add(strings.add(mirror));
+            }
+        }
+
+        byte[] table = strings.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + records.capacity() + mirrors.size() * 4 + table.length);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT);
+        buffer.putInt(releases.size());
+        buffer.putInt(mirrors.size());
+        buffer.putInt(table.length);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.put(records.flip());
+        mirrors.forEach(buffer::putInt);
+        buffer.put(table);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, buffer.array());
+
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Чтение строк по ссылкам; одна и та же строка (адрес зеркала, пустой sha256) создаётся один раз.
+     */
+    private static final class Strings
+    {
+        private final ByteBuffer table;
+        private final Map<Integer, String> decoded = new HashMap<>();
+
+        Strings(ByteBuffer table) {
+            this.table = table;
+        }
+
+        String get(int ref)
+        {
+            if (ref == NULL) return null;
+
+            String value = decoded.get(ref);
+            if (value == null)
+            {
+                byte[] bytes = new byte[table.getInt(ref)];
+                table.get(ref + 4, bytes);
+
+                value = new String(bytes, StandardCharsets.UTF_8);
+                decoded.put(ref, value);
+            }
+
+            return value;
+        }
+    }
+
+    private static final class StringTable
+    {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+
+        int add(String value)
+        {
+            if (value == null) return NULL;
+
+            return refs.computeIfAbsent(value, v ->
+            {
+                int ref = out.size();
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+
+                out.writeBytes(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                out.writeBytes(bytes);
+                return ref;
+            });
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -6,14 +6,19 @@
 
 package org.vxlauncher.service;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.vxlauncher.AppInfo;
 import org.vxlauncher.model.OSType;
 import org.vxlauncher.model.ReleaseInfo;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 public class ReleaseService
@@ -23,13 +28,42 @@ public class ReleaseService
             "https://raw.githubusercontent.com/0xcds4r/VXLauncher/main/scripts/releases.json"
     };
     private static final String BASE_URL = "https://github.com/MihailRis/voxelcore/releases/download/";
-    private static final String CACHE_FILE = "releases_cache.json";
+    private static final String CACHE_NAME = "releases_cache.json";
+    private static final Path CACHE_FILE = Paths.get(AppInfo.getAppDir(), CACHE_NAME);
     private static final long CACHE_DURATION = 24 * 60 * 60 * 1000;
 
     private final OSType osType;
 
-    public ReleaseService(OSType osType) {
+    // разобранный кеш под эту ОС; JSON остаётся рядом для отладки
+    private final Path indexFile;
+
+    public ReleaseService(OSType osType)
+    {
         this.osType = osType;
+        this.indexFile = Paths.get(AppInfo.getAppDir(), "releases_" + osType.name().toLowerCase() + ".idx");
+        migrateCache();
+    }
+
+    /**
+     * Раньше кеш писался в текущую папку, откуда бы лаунчер ни запускали.
+     */
+    private void migrateCache()
+    {
+        Path legacy = Paths.get(CACHE_NAME).toAbsolutePath();
+        if (!Files.exists(legacy) || legacy.equals(CACHE_FILE.toAbsolutePath())) return;
+
+        try {
+            if (Files.exists(CACHE_FILE)) {
+                Files.delete(legacy);
+            } else {
+                Files.createDirectories(CACHE_FILE.getParent());
+                Files.move(legacy, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            System.out.println("--> Кеш релизов перенесён в " + CACHE_FILE);
+        } catch (IOException e) {
+            System.err.println("--> Не удалось перенести кеш релизов: " + e.getMessage());
+        }
     }
 
     public Map<String, ReleaseInfo> loadReleasesFromGitHub()
@@ -46,18 +80,18 @@ public class ReleaseService
             }
 
             System.out.println("--> Запрос к GitHub API");
-            String json = null;
+            releases = null;
 
             try {
                 System.out.println("--> Пытаемся основной API...");
-                json = fetchGitHubReleases(GITHUB_API);
+                releases = fetchGitHubReleases(GITHUB_API);
                 System.out.println("--> Основной API сработал!");
             } catch (Exception e1) {
                 System.out.println("--> Основной API не работает, пытаемся зеркала...");
                 for (String mirror : GITHUB_API_MIRRORS) {
                     try {
                         System.out.println("--> Пытаемся: " + mirror.substring(0, Math.min(50, mirror.length())));
-                        json = fetchGitHubReleases(mirror);
+                        releases = fetchGitHubReleases(mirror);
                         System.out.println("--> Зеркало сработало!");
                         break;
                     } catch (Exception e2) {
@@ -65,20 +99,12 @@ public class ReleaseService
                     }
                 }
 
-                if (json == null) {
+                if (releases == null) {
                     throw new Exception("Все источники недоступны");
                 }
             }
-            System.out.println("--> Получено JSON длиной: " + json.length() + " символов");
-
-            releases = parseGitHubReleases(json);
             System.out.println("--> Распарсено релизов: " + releases.size());
 
-            if (!releases.isEmpty()) {
-                saveToCache(json);
-                System.out.println("--> Кеш обновлён");
-            }
-
             if (releases.isEmpty()) {
                 System.out.println("--> Релизы не найдены, используем fallback");
                 releases = loadKnownReleases();
@@ -100,7 +126,7 @@ public class ReleaseService
     private boolean isCacheValid()
     {
         try {
-            File cacheFile = new File(CACHE_FILE);
+            File cacheFile = CACHE_FILE.toFile();
             if (!cacheFile.exists()) {
                 return false;
             }
@@ -111,29 +137,52 @@ public class ReleaseService
         }
     }
 
+    /**
+     * Релизы из двоичного индекса, а если его нет или он старше JSON - разбором JSON
+     * с пересозданием индекса.
+     */
     private Map<String, ReleaseInfo> loadFromCache()
     {
+        if (indexFile.toFile().lastModified() >= CACHE_FILE.toFile().lastModified())
+        {
+            Map<String, ReleaseInfo> indexed = ReleaseIndex.read(indexFile);
+
+            if (indexed != null && !indexed.isEmpty()) {
+                System.out.println("--> Загружено из индекса: " + indexed.size() + " релизов");
+                return indexed;
+            }
+        }
+
         Map<String, ReleaseInfo> releases = new LinkedHashMap<>();
-        try {
-            String json = new String(Files.readAllBytes(Paths.get(CACHE_FILE)));
-            releases = parseGitHubReleases(json);
+        try (Reader reader = Files.newBufferedReader(CACHE_FILE, StandardCharsets.UTF_8)) {
+            releases = parseGitHubReleases(reader);
             System.out.println("--> Загружено из кеша: " + releases.size() + " релизов");
         } catch (Exception e) {
             System.err.println("--> Ошибка чтения кеша: " + e.getMessage());
         }
+
+        if (!releases.isEmpty()) {
+            saveIndex(releases);
+        }
+
         return releases;
     }
 
-    private void saveToCache(String json)
+    private void saveIndex(Map<String, ReleaseInfo> releases)
     {
         try {
-            Files.write(Paths.get(CACHE_FILE), json.getBytes());
-        } catch (Exception e) {
-            System.err.println("--> Ошибка сохранения кеша: " + e.getMessage());
+            ReleaseIndex.write(indexFile, releases);
+        } catch (IOException e) {
+            // без индекса просто разберём JSON в следующий раз
+            System.err.println("--> Ошибка сохранения индекса релизов: " + e.getMessage());
         }
     }
 
-    private String fetchGitHubReleases(String apiUrl)
+    /**
+     * Разбирает ответ прямо из соединения. Прочитанные байты по дороге пишутся во временный
+     * файл, который становится кешем, если в ответе нашлись релизы.
+     */
+    private Map<String, ReleaseInfo> fetchGitHubReleases(String apiUrl)
             throws Exception
     {
         URL url = new URL(apiUrl);
@@ -149,80 +198,216 @@ public class ReleaseService
             throw new Exception("API вернул код: " + responseCode);
         }
 
-        BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-        StringBuilder response = new StringBuilder();
-        String line;
+        Path tmp = CACHE_FILE.resolveSibling(CACHE_NAME + ".tmp");
+        Files.createDirectories(tmp.getParent());
+
+        Map<String, ReleaseInfo> releases;
 
-        while ((line = in.readLine()) != null) {
-            response.append(line);
+        try (OutputStream copy = new BufferedOutputStream(Files.newOutputStream(tmp));
+             InputStream in = new TeeInputStream(conn.getInputStream(), copy))
+        {
+            releases = parseGitHubReleases(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+            // хвост после последней скобки, чтобы кеш совпал с ответом байт в байт
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (Exception e)
+        {
+            Files.deleteIfExists(tmp);
+            throw e;
         }
 
-        in.close();
+        if (releases.isEmpty()) {
+            Files.deleteIfExists(tmp);
+        } else {
+            Files.move(tmp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING);
+            saveIndex(releases);
+            System.out.println("--> Кеш обновлён");
+        }
 
-        return response.toString();
+        return releases;
     }
 
-    private Map<String, ReleaseInfo> parseGitHubReleases(String json)
+    /**
+     * Потоковый разбор списка релизов: документ целиком не читается в память и дерево не
+     * строится. Из релиза берутся только tag_name, draft и assets, из asset - поля ReleaseInfo;
+     * после первого подходящего asset остальные пропускаются не разбирая.
+     */
+    Map<String, ReleaseInfo> parseGitHubReleases(Reader in)
+            throws IOException
     {
         Map<String, ReleaseInfo> releases = new LinkedHashMap<>();
 
-        try {
-            JsonArray releasesArray = JsonParser.parseString(json).getAsJsonArray();
-            System.out.println("--> Найдено релизов в JSON: " + releasesArray.size());
+        JsonReader reader = new JsonReader(in);
+        reader.beginArray();
 
-            for (JsonElement releaseElement : releasesArray)
-            {
-                JsonObject release = releaseElement.getAsJsonObject();
+        while (reader.hasNext())
+        {
+            ReleaseInfo info = readRelease(reader);
+            if (info != null) {
+                releases.put(info.getVersion(), info);
+            }
+        }
 
-                if (release.has("draft") && release.get("draft").getAsBoolean()) {
-                    continue;
-                }
+        reader.endArray();
+        return releases;
+    }
 
-                String tagName = release.get("tag_name").getAsString();
-                String version = tagName.startsWith("v") ? tagName.substring(1) : tagName;
+    /**
+     * @return null для черновика или релиза без файла под эту ОС
+     */
+    private ReleaseInfo readRelease(JsonReader reader)
+            throws IOException
+    {
+        String version = null;
+        boolean draft = false;
+        Asset asset = null;
 
-                System.out.println("--> Обработка релиза: " + version);
+        reader.beginObject();
 
-                JsonArray assets = release.getAsJsonArray("assets");
-                if (assets == null || assets.isEmpty()) {
-                    System.out.println("--> Нет assets для релиза " + version);
-                    continue;
+        while (reader.hasNext())
+        {
+            switch (reader.nextName())
+            {
+                case "tag_name" -> {
+                    String tagName = nextString(reader);
+                    if (tagName != null) {
+                        version = tagName.startsWith("v") ? tagName.substring(1) : tagName;
+                    }
                 }
+                case "draft" -> draft = reader.peek() == JsonToken.BOOLEAN ? reader.nextBoolean() : skip(reader);
+                case "assets" -> asset = readAssets(reader);
+                default -> reader.skipValue();
+            }
+        }
 
-                for (JsonElement assetElement : assets)
-                {
-                    JsonObject asset = assetElement.getAsJsonObject();
-                    String fileName = asset.get("name").getAsString();
+        reader.endObject();
 
-                    System.out.println("--> Проверяем asset: " + fileName);
+        if (draft || version == null || asset == null) {
+            return null;
+        }
 
-                    boolean matches = switch (osType) {
-                        case WINDOWS -> fileName.contains("win64") && fileName.endsWith(".zip");
-                        case MACOS -> fileName.contains("macos") && fileName.endsWith(".dmg");
-                        case LINUX -> fileName.endsWith(".AppImage");
-                    };
+        return new ReleaseInfo(version, asset.downloadUrl, "", asset.size, asset.name, asset.mirrors, asset.blockManifest);
+    }
 
-                    if (matches)
-                    {
-                        String downloadUrl = asset.get("browser_download_url").getAsString();
-                        long size = asset.get("size").getAsLong();
+    /**
+     * @return первый asset под эту ОС или null
+     */
+    private Asset readAssets(JsonReader reader)
+            throws IOException
+    {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            skip(reader);
+            return null;
+        }
 
-                        System.out.println("--> Найден подходящий файл: " + fileName);
+        Asset found = null;
+        reader.beginArray();
 
-                        ReleaseInfo info = new ReleaseInfo(version, downloadUrl, "", size, fileName);
-                        releases.put(version, info);
-                        break;
-                    }
-                }
+        while (reader.hasNext())
+        {
+            if (found != null) {
+                reader.skipValue();
+                continue;
             }
 
-        } catch (Exception e)
+            Asset asset = readAsset(reader);
+            if (asset != null && asset.name != null && asset.downloadUrl != null && matches(asset.name)) {
+                found = asset;
+            }
+        }
+
+        reader.endArray();
+        return found;
+    }
+
+    private Asset readAsset(JsonReader reader)
+            throws IOException
+    {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            skip(reader);
+            return null;
+        }
+
+        Asset asset = new Asset();
+        reader.beginObject();
+
+        while (reader.hasNext())
         {
-            System.err.println("Error parse JSON: " + e.getMessage());
-            e.printStackTrace();
+            switch (reader.nextName())
+            {
+                case "name" -> asset.name = nextString(reader);
+                case "browser_download_url" -> asset.downloadUrl = nextString(reader);
+                case "size" -> asset.size = nextLong(reader);
+                case "block_manifest" -> asset.blockManifest = nextString(reader);
+                case "mirrors" -> readMirrors(reader, asset.mirrors);
+                default -> reader.skipValue();
+            }
         }
 
-        return releases;
+        reader.endObject();
+        return asset;
+    }
+
+    private static void readMirrors(JsonReader reader, List<String> mirrors)
+            throws IOException
+    {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            skip(reader);
+            return;
+        }
+
+        reader.beginArray();
+
+        while (reader.hasNext())
+        {
+            String mirror = nextString(reader);
+            if (mirror != null) {
+                mirrors.add(mirror);
+            }
+        }
+
+        reader.endArray();
+    }
+
+    private boolean matches(String fileName)
+    {
+        return switch (osType) {
+            case WINDOWS -> fileName.contains("win64") && fileName.endsWith(".zip");
+            case MACOS -> fileName.contains("macos") && fileName.endsWith(".dmg");
+            case LINUX -> fileName.endsWith(".AppImage");
+        };
+    }
+
+    /**
+     * Строка или null, если там null или не строка.
+     */
+    private static String nextString(JsonReader reader)
+            throws IOException
+    {
+        if (reader.peek() == JsonToken.STRING) {
+            return reader.nextString();
+        }
+
+        skip(reader);
+        return null;
+    }
+
+    private static long nextLong(JsonReader reader)
+            throws IOException
+    {
+        if (reader.peek() == JsonToken.NUMBER) {
+            return reader.nextLong();
+        }
+
+        skip(reader);
+        return 0;
+    }
+
+    private static boolean skip(JsonReader reader)
+            throws IOException
+    {
+        reader.skipValue();
+        return false;
     }
 
     public Map<String, ReleaseInfo> loadKnownReleases()
@@ -262,4 +447,44 @@ public class ReleaseService
 
         return releases;
     }
-}
\ No newline at end of file
+
+    // поля подходящего asset, пока релиз не дочитан
+    private static class Asset
+    {
+        String name;
+        String downloadUrl;
+        long size;
+        String blockManifest;
+        List<String> mirrors = new ArrayList<>();
+    }
+
+    /**
+     * Копирует всё прочитанное в out.
+     */
+    private static class TeeInputStream extends FilterInputStream
+    {
+        private final OutputStream out;
+
+        TeeInputStream(InputStream in, OutputStream out)
+        {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b >= 0) out.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            if (n > 0) out.write(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+//////////////////////////////////////////////////////
+//// @File service/RetryPolicy.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Повторы с экспоненциальной задержкой и полным jitter. Ожидание идёт через
+ * CompletableFuture.delayedExecutor, поток пула на время паузы не занимается.
+ */
+public class RetryPolicy
+{
+    private final int maxAttempts;
+    private final long baseMillis;
+    private final long capMillis;
+    private final long maxRetryAfterMillis;
+
+    public RetryPolicy(int maxAttempts, long baseMillis, long capMillis, long maxRetryAfterMillis)
+    {
+        this.maxAttempts = maxAttempts;
+        this.baseMillis = baseMillis;
+        this.capMillis = capMillis;
+        this.maxRetryAfterMillis = maxRetryAfterMillis;
+    }
+
+    public <T> CompletableFuture<T> run(Supplier<CompletableFuture<T>> supplier)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(supplier, 0, result);
+        return result;
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> supplier, int attempt, CompletableFuture<T> result)
+    {
+        CompletableFuture<T> future;
+
+        try {
+            future = supplier.get();
+        } catch (Throwable t) {
+            future = CompletableFuture.failedFuture(t);
+        }
+
+        future.whenComplete((value, error) ->
+        {
+            if (error == null)
+            {
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = unwrap(error);
+            long delay = delayMillis(attempt, cause);
+
+            if (delay < 0)
+            {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(() -> attempt(supplier, attempt + 1, result));
+        });
+    }
+
+    /**
+     * Пауза перед следующей попыткой или -1, если повторять не нужно.
+     */
+    long delayMillis(int attempt, Throwable cause)
+    {
+        if (attempt + 1 >= maxAttempts || !isRetryable(cause)) {
+            return -1;
+        }
+
+        if (cause instanceof HttpStatusException && ((HttpStatusException) cause).getRetryAfter() != null)
+        {
+            long retryAfter = ((HttpStatusException) cause).getRetryAfter().toMillis();
+            return retryAfter > maxRetryAfterMillis ? -1 : retryAfter;
+        }
+
+        long ceiling = Math.min(capMillis, baseMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    static boolean isRetryable(Throwable cause)
+    {
+        if (cause instanceof HttpStatusException) {
+            return ((HttpStatusException) cause).isRetryable();
+        }
+
+        if (cause instanceof CircuitBreaker.OpenException) {
+            return ((CircuitBreaker.OpenException) cause).isProbing();
+        }
+
+        return !(cause instanceof CancellationException)
+                && (cause instanceof IOException
+                    || cause instanceof UncheckedIOException
+                    || cause.getCause() instanceof IOException);
+    }
+
+    static Throwable unwrap(Throwable t)
+    {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+
+        return t;
+    }
+}
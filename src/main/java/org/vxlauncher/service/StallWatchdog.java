@@ -0,0 +1,157 @@
+//////////////////////////////////////////////////////
+//// @File service/StallWatchdog.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Раз в секунду смотрит на позицию каждого активного ответа и обрывает те, что
+ * зависли или качают медленнее порога. Оборванный запрос уходит в обычный повтор.
+ * Соединение, которое придерживает ограничение скорости, медленным не считается.
+ */
+public class StallWatchdog
+{
+    private static final long TICK_MS = 1000;
+
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+        Thread t = new Thread(r, "download-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long minBytesPerSecond;
+    private final int windowSeconds;
+    private final long stallMillis;
+
+    private final ConcurrentLinkedQueue<Watch> watches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param minBytesPerSecond минимальная скорость соединения, 0 - не проверять
+     * @param windowSeconds     окно, за которое считается скорость
+     * @param stallSeconds      сколько секунд без единого байта считается зависанием
+     */
+    public StallWatchdog(long minBytesPerSecond, int windowSeconds, int stallSeconds)
+    {
+        this.minBytesPerSecond = minBytesPerSecond;
+        this.windowSeconds = Math.max(1, windowSeconds);
+        this.stallMillis = stallSeconds * 1000L;
+
+        TICKER.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static StallWatchdog defaults() {
+        return new StallWatchdog(4 * 1024, 30, 20);
+    }
+
+    /**
+     * Начинает следить за ответом, пока тот не завершится.
+     */
+    public void watch(FileChannelSubscriber subscriber, String name, Consumer<String> events)
+    {
+        Watch watch = new Watch(subscriber, name, events);
+        watches.add(watch);
+        subscriber.getBody().whenComplete((v, e) -> watches.remove(watch));
+    }
+
+    private void tick()
+    {
+        long now = System.currentTimeMillis();
+
+        for (Iterator<Watch> it = watches.iterator(); it.hasNext(); )
+        {
+            Watch watch = it.next();
+            String reason = watch.check(now);
+
+            if (reason != null)
+            {
+                it.remove();
+                watch.events.accept("Соединение " + watch.name + " оборвано: " + reason + ", повторяем");
+                watch.subscriber.abort(new StallException(reason));
+            }
+        }
+    }
+
+    private final class Watch
+    {
+        final FileChannelSubscriber subscriber;
+        final String name;
+        final Consumer<String> events;
+
+        final long[] samples = new long[windowSeconds + 1];
+        int ticks;
+        long lastPosition;
+        long lastProgressAt;
+        long lastThrottled;
+
+        Watch(FileChannelSubscriber subscriber, String name, Consumer<String> events)
+        {
+            this.subscriber = subscriber;
+            this.name = name;
+            this.events = events;
+            this.lastPosition = subscriber.getPosition();
+            this.lastProgressAt = System.currentTimeMillis();
+            this.samples[0] = lastPosition;
+        }
+
+        String check(long now)
+        {
+            long position = subscriber.getPosition();
+            long throttled = subscriber.getThrottledNanos();
+
+            if (throttled != lastThrottled)
+            {
+                // медленно не из-за сети - окно замера начинается заново
+                lastThrottled = throttled;
+                lastPosition = position;
+                lastProgressAt = now;
+                ticks = 0;
+                samples[0] = position;
+                return null;
+            }
+
+            if (position != lastPosition)
+            {
+                lastPosition = position;
+                lastProgressAt = now;
+            }
+            else if (stallMillis > 0 && now - lastProgressAt >= stallMillis) {
+                return "нет данных " + (now - lastProgressAt) / 1000 + " с";
+            }
+
+            ticks++;
+            samples[ticks % samples.length] = position;
+
+            if (minBytesPerSecond > 0 && ticks >= windowSeconds)
+            {
+                long oldest = samples[(ticks - windowSeconds) % samples.length];
+                long rate = (position - oldest) / windowSeconds;
+
+                if (rate < minBytesPerSecond) {
+                    return "скорость " + rate / 1024 + " КБ/с ниже порога " + minBytesPerSecond / 1024 + " КБ/с";
+                }
+            }
+
+            return null;
+        }
+    }
+
+    public static class StallException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        public StallException(String message) {
+            super(message);
+        }
+    }
+}
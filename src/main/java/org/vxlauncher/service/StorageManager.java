@@ -0,0 +1,494 @@
+//////////////////////////////////////////////////////
+//// @File service/StorageManager.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Следит за размером папки лаунчера. Подсчёт занятого места идёт параллельным обходом,
+ * жёсткие ссылки (общие файлы после Deduplicator, хранилище) считаются один раз.
+ * Уборка удаляет остатки прерванных установок и недокачанные файлы, а затем версии по
+ * правилам из storage.json: сколько последних версий оставить, закреплённые, общий лимит
+ * байт и максимальный срок без запуска. По умолчанию правила выключены - удаляется только мусор.
+ */
+public class StorageManager
+{
+    private static final String SETTINGS_FILE = "storage.json";
+
+    // недокачанное младше этого ещё может продолжиться
+    private static final Duration PARTIAL_MAX_AGE = Duration.ofDays(7);
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+
+    private final FileService fileService;
+    private final Path appDir;
+    private final Path versionsDir;
+    private final ArtifactStore store;
+    private final ColdStorage cold;
+
+    private Policy policy = new Policy();
+
+    /**
+     * Правила хранения версий, 0 - без ограничения.
+     */
+    public static class Policy
+    {
+        int keepNewest;
+        long maxBytes;
+        int maxAgeDays;
+        Set<String> pinned = new TreeSet<>();
+
+        public int getKeepNewest() { return keepNewest; }
+        public long getMaxBytes() { return maxBytes; }
+        public int getMaxAgeDays() { return maxAgeDays; }
+        public Set<String> getPinned() { return pinned; }
+    }
+
+    /**
+     * @param versions размер каждой версии
+     * @param store    хранилище скачанных файлов
+     * @param partial  остатки прерванных установок и недокачанные файлы
+     * @param other    всё остальное: индексы, кеши
+     */
+    public record Usage(Map<String, Long> versions, long store, long partial, long other)
+    {
+        public long versionsTotal() {
+            return versions.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long total() {
+            return versionsTotal() + store + partial + other;
+        }
+    }
+
+    /**
+     * @param removed удалённые версии
+     * @param freed   сколько байт освобождено всего
+     */
+    public record Report(List<String> removed, long freed)
+    {
+    }
+
+    public StorageManager(FileService fileService, Path appDir, Path versionsDir, ArtifactStore store, ColdStorage cold)
+    {
+        this.fileService = fileService;
+        this.appDir = appDir;
+        this.versionsDir = versionsDir;
+        this.store = store;
+        this.cold = cold;
+
+        load();
+    }
+
+    public synchronized Policy getPolicy() {
+        return policy;
+    }
+
+    public synchronized boolean isPinned(String version) {
+        return policy.pinned.contains(version);
+    }
+
+    /**
+     * Закреплённая версия не удаляется уборкой.
+     */
+    public synchronized void pin(String version, boolean pinned)
+    {
+        if (pinned) {
+            policy.pinned.add(version);
+        } else {
+            policy.pinned.remove(version);
+        }
+
+        save();
+    }
+
+    /**
+     * Считает занятое место по категориям.
+     */
+    public Usage measure()
+    {
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        Map<String, SizeTask> versions = new LinkedHashMap<>();
+        List<SizeTask> partial = new ArrayList<>();
+        List<SizeTask> other = new ArrayList<>();
+
+        for (Path dir : list(versionsDir))
+        {
+            String name = dir.getFileName().toString();
+
+            if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) {
+                other.add(new SizeTask(dir, seen));
+            } else if (name.startsWith(".")) {
+                partial.add(new SizeTask(dir, seen));
+            } else {
+                versions.put(name, new SizeTask(dir, seen));
+            }
+        }
+
+        Path storeDir = appDir.resolve("store");
+
+        for (Path path : list(appDir))
+        {
+            if (path.equals(versionsDir) || path.equals(storeDir)) continue;
+            (DownloadService.isPartial(path) ? partial : other).add(new SizeTask(path, seen));
+        }
+
+        SizeTask storeTask = new SizeTask(storeDir, seen);
+
+        // один общий fork-join проход: мелкие папки не ждут крупных
+        List<SizeTask> all = new ArrayList<>(versions.values());
+        all.addAll(partial);
+        all.addAll(other);
+        all.add(storeTask);
+        POOL.invoke(new RecursiveTask<Void>()
+        {
+            @Override
+            protected Void compute()
+            {
+                invokeAll(all);
+                return null;
+            }
+        });
+
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        versions.forEach((version, task) -> sizes.put(version, task.join()));
+
+        return new Usage(sizes, storeTask.join(),
+                partial.stream().mapToLong(SizeTask::join).sum(),
+                other.stream().mapToLong(SizeTask::join).sum());
+    }
+
+    /**
+     * Удаляет мусор, затем версии по правилам.
+     * @param busy версии, которые сейчас нельзя трогать (запущены, устанавливаются)
+     */
+    public Report collect(Predicate<String> busy)
+    {
+        long started = System.currentTimeMillis();
+        long freed = collectPartial(busy, PARTIAL_MAX_AGE);
+
+        Policy current;
+        synchronized (this) {
+            current = policy;
+        }
+
+        List<String> removed = new ArrayList<>();
+        if (current.keepNewest <= 0 && current.maxBytes <= 0 && current.maxAgeDays <= 0) {
+            return new Report(removed, freed);
+        }
+
+        Usage usage = measure();
+
+        // от недавно запущенных к давно не запускавшимся
+        List<String> candidates = new ArrayList<>(usage.versions().keySet());
+        candidates.sort(Comparator.comparingLong(cold::getLastLaunch).reversed());
+
+        if (current.keepNewest > 0) {
+            candidates = candidates.subList(Math.min(current.keepNewest, candidates.size()), candidates.size());
+        }
+
+        candidates = new ArrayList<>(candidates);
+        candidates.removeIf(v -> current.pinned.contains(v) || busy.test(v));
+
+        // сначала те, что запускались давнее всего
+        candidates.sort(Comparator.comparingLong(cold::getLastLaunch));
+
+        long total = usage.total();
+        long oldest = System.currentTimeMillis() - Duration.ofDays(current.maxAgeDays).toMillis();
+
+        for (String version : candidates)
+        {
+            boolean expired = current.keepNewest > 0 || (current.maxAgeDays > 0 && cold.getLastLaunch(version) < oldest);
+            boolean overBudget = current.maxBytes > 0 && total > current.maxBytes;
+
+            // хранилище - просто кеш, его не жалко раньше версий
+            if (!expired && overBudget && store != null && store.getSize() > 0)
+            {
+                long trimmed = store.trim(Math.max(0, store.getSize() - (total - current.maxBytes)));
+                total -= trimmed;
+                freed += trimmed;
+                overBudget = total > current.maxBytes;
+            }
+
+            if (!expired && !overBudget) continue;
+
+            long size = usage.versions().getOrDefault(version, 0L);
+
+            Lock lock = cold.lock(version);
+            lock.lock();
+
+            try {
+                // версию могли запустить или поставить на установку после отбора кандидатов
+                if (busy.test(version) || cold.getLastLaunch(version) >= started) continue;
+
+                fileService.deleteDirectory(versionsDir.resolve(version));
+                System.out.println("--> Версия " + version + " удалена по правилам хранения");
+
+                removed.add(version);
+                total -= size;
+                freed += size;
+            } catch (IOException e) {
+                System.err.println("--> Не удалось удалить версию " + version + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return new Report(removed, freed);
+    }
+
+    /**
+     * Остатки установок в versions (.staging, .old, .cold, .rehydrate) и недокачанные файлы.
+     * Незавершённые установки и распаковки продолжаются с места остановки, поэтому моложе
+     * maxAge не трогаются; прежние папки .old возвращаются на место или удаляются сразу.
+     * @return сколько байт освобождено
+     */
+    public long collectPartial(Predicate<String> busy, Duration maxAge)
+    {
+        long freed = 0;
+        long threshold = System.currentTimeMillis() - maxAge.toMillis();
+
+        for (Path dir : list(versionsDir))
+        {
+            String name = dir.getFileName().toString();
+            if (!name.startsWith(".") || !Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) continue;
+
+            int suffix = name.lastIndexOf('.');
+            if (suffix <= 0) continue;
+
+            String version = name.substring(1, suffix);
+            String kind = name.substring(suffix + 1);
+
+            // .cold и .rehydrate - рабочие папки идущей упаковки или распаковки
+            Lock lock = cold.lock(version);
+            lock.lock();
+
+            try {
+                if (busy.test(version)) continue;
+
+                long size = POOL.invoke(new SizeTask(dir, ConcurrentHashMap.newKeySet()));
+
+                switch (kind)
+                {
+                    case "old" -> {
+                        fileService.restoreDirectory(versionsDir.resolve(version));
+                        if (!Files.exists(dir)) continue;
+                    }
+                    case "staging", "rehydrate" -> {
+                        if (lastModified(dir) > threshold) continue;
+                    }
+                    case "cold" -> {
+                        // прерванная упаковка не продолжается
+                    }
+                    default -> {
+                        continue;
+                    }
+                }
+
+                fileService.deleteDirectory(dir);
+                freed += size;
+                System.out.println("--> Удалены остатки " + name);
+            } catch (IOException e) {
+                System.err.println("--> Не удалось удалить " + name + ": " + e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // недокачанные файлы от прежних версий лаунчера: те качали в папку лаунчера или прямо в папку версии
+        freed += deletePartial(appDir, threshold);
+
+        for (Path dir : list(versionsDir))
+        {
+            String version = dir.getFileName().toString();
+            if (version.startsWith(".") || !Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) continue;
+
+            Lock lock = cold.lock(version);
+            lock.lock();
+
+            try {
+                if (!busy.test(version)) {
+                    freed += deletePartial(dir, threshold);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return freed;
+    }
+
+    /**
+     * Удаляет .part и журналы старше threshold на верхнем уровне dir; вглубь не заходит -
+     * там файлы игры, и их имена могут совпасть.
+     */
+    private static long deletePartial(Path dir, long threshold)
+    {
+        long freed = 0;
+
+        for (Path file : list(dir))
+        {
+            try {
+                if (!DownloadService.isPartial(file) || !Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) continue;
+                if (Files.getLastModifiedTime(file).toMillis() > threshold) continue;
+
+                long size = Files.size(file);
+                Files.deleteIfExists(file);
+                freed += size;
+            } catch (IOException e) {
+                System.err.println("--> Не удалось удалить " + file + ": " + e.getMessage());
+            }
+        }
+
+        return freed;
+    }
+
+    private static long lastModified(Path dir) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(dir))
+        {
+            long newest = 0;
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                newest = Math.max(newest, Files.getLastModifiedTime(path).toMillis());
+            }
+            return newest;
+        }
+    }
+
+    private static List<Path> list(Path dir)
+    {
+        if (!Files.isDirectory(dir)) return List.of();
+
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.toList();
+        } catch (IOException e) {
+            System.err.println("--> Не удалось прочитать " + dir + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private synchronized void load()
+    {
+        Path file = appDir.resolve(SETTINGS_FILE);
+        if (!Files.exists(file)) return;
+
+        try {
+            Policy saved = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), Policy.class);
+
+            if (saved != null)
+            {
+                if (saved.pinned == null) {
+                    saved.pinned = new TreeSet<>();
+                }
+                policy = saved;
+            }
+        } catch (Exception e) {
+            System.err.println("--> Настройки хранения повреждены, используем стандартные: " + e.getMessage());
+        }
+    }
+
+    private synchronized void save()
+    {
+        try {
+            Files.createDirectories(appDir);
+
+            Path tmp = appDir.resolve(SETTINGS_FILE + ".tmp");
+            Files.writeString(tmp, GSON.toJson(policy), StandardCharsets.UTF_8);
+            Files.move(tmp, appDir.resolve(SETTINGS_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("--> Не удалось сохранить настройки хранения: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Размер файла или папки; подпапки считаются параллельно, файл с уже встреченным
+     * ключом (та же жёсткая ссылка) не считается.
+     */
+    private static final class SizeTask extends RecursiveTask<Long>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Path path;
+        private final Set<Object> seen;
+
+        SizeTask(Path path, Set<Object> seen)
+        {
+            this.path = path;
+            this.seen = seen;
+        }
+
+        @Override
+        protected Long compute()
+        {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (!attributes.isDirectory()) {
+                    return size(attributes);
+                }
+
+                // файлы считаются сразу, задачи заводятся только на подпапки
+                long total = 0;
+                List<SizeTask> children = new ArrayList<>();
+
+                try (Stream<Path> paths = Files.list(path))
+                {
+                    for (Path child : (Iterable<Path>) paths::iterator)
+                    {
+                        BasicFileAttributes childAttributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+                        if (childAttributes.isDirectory()) {
+                            children.add(new SizeTask(child, seen));
+                        } else {
+                            total += size(childAttributes);
+                        }
+                    }
+                }
+
+                for (SizeTask child : invokeAll(children)) {
+                    total += child.join();
+                }
+
+                return total;
+            } catch (IOException e) {
+                // файл удалили во время обхода
+                return 0L;
+            }
+        }
+
+        private long size(BasicFileAttributes attributes)
+        {
+            Object key = attributes.fileKey();
+            return key == null || seen.add(key) ? attributes.size() : 0L;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+//////////////////////////////////////////////////////
+//// @File service/StreamingDigest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SHA-256, считаемый по ходу загрузки строго по порядку байт.
+ * Данные на границе уже посчитанного префикса хешируются прямо из буфера загрузки,
+ * всё остальное дочитывается из .part файла (из page cache), когда префикс дописан.
+ */
+public class StreamingDigest
+{
+    private final MessageDigest digest;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long hashed;
+
+    public StreamingDigest()
+    {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getHashed() {
+        return hashed;
+    }
+
+    /**
+     * Хеширует буфер, если он начинается ровно на границе посчитанного префикса.
+     * Не ждёт блокировку: если идёт дочитывание из файла, эти байты будут прочитаны оттуда.
+     */
+    public void update(long position, ByteBuffer data)
+    {
+        if (!lock.tryLock()) return;
+
+        try {
+            if (position == hashed)
+            {
+                int start = data.position();
+                hashed += data.remaining();
+                digest.update(data);
+                data.position(start);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Дочитывает из файла и хеширует всё от границы префикса до upTo.
+     */
+    public void catchUp(FileChannel channel, long upTo) throws IOException
+    {
+        lock.lock();
+        try {
+            if (hashed >= upTo) return;
+
+            BufferPool pool = BufferPool.shared();
+            ByteBuffer buffer = pool.acquire();
+
+            try {
+                while (hashed < upTo)
+                {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), upTo - hashed));
+
+                    int read = channel.read(buffer, hashed);
+                    if (read <= 0) {
+                        throw new IOException("Неожиданный конец файла на " + hashed);
+                    }
+
+                    buffer.flip();
+                    digest.update(buffer);
+                    hashed += read;
+                }
+            } finally {
+                pool.release(buffer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void reset()
+    {
+        lock.lock();
+        try {
+            digest.reset();
+            hashed = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return hex SHA-256 или null, если посчитан не весь файл
+     */
+    public String finish(long size)
+    {
+        lock.lock();
+        try {
+            if (hashed != size) {
+                return null;
+            }
+
+            return FileService.toHex(digest.digest());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+//////////////////////////////////////////////////////
+//// @File service/StreamingUnzip.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.DownloadProgress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Распаковка ZIP прямо во время загрузки. Слушает рост непрерывного префикса .part файла
+ * и читает локальные записи архива по мере того, как их байты приходят, в отдельный каталог.
+ * В установку файлы переносятся только в finish(), когда архив скачан, хеш проверен и
+ * распакованное совпало с центральным каталогом. Иначе finish() возвращает false и
+ * архив нужно распаковать обычным способом.
+ */
+public class StreamingUnzip implements ProgressListener
+{
+    /** Имя временного каталога внутри папки версии */
+    public static final String STAGING_DIR = ".extract";
+
+    private static final ExecutorService THREADS = Executors.newCachedThreadPool(r ->
+    {
+        Thread t = new Thread(r, "unzip-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path part;
+    private final Path staging;
+    private final ProgressListener delegate;
+
+    // имя записи -> {размер, CRC}
+    private final Map<String, long[]> extracted = new HashMap<>();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private long available;
+    private Path archive;
+    private boolean aborted;
+
+    /**
+     * @param part     .part файл загрузки архива
+     * @param staging  временный каталог для распакованного, очищается при старте
+     * @param delegate куда пересылать обычный прогресс загрузки
+     */
+    public StreamingUnzip(Path part, Path staging, ProgressListener delegate)
+    {
+        this.part = part;
+        this.staging = staging;
+        this.delegate = delegate;
+    }
+
+    public void start()
+    {
+        THREADS.execute(() ->
+        {
+            try {
+                deleteStaging();
+                Files.createDirectories(staging);
+                extract();
+                done.complete(null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+            }
+        });
+    }
+
+    @Override
+    public void onProgress(long done, long total) {
+        delegate.onProgress(done, total);
+    }
+
+    @Override
+    public void onConnections(Supplier<List<DownloadProgress.Connection>> source) {
+        delegate.onConnections(source);
+    }
+
+    @Override
+    public void onEvent(String message) {
+        delegate.onEvent(message);
+    }
+
+    @Override
+    public synchronized void onContiguous(long bytes)
+    {
+        if (bytes > available)
+        {
+            available = bytes;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Архив скачан и проверен: дораспаковывает остаток, сверяет с центральным каталогом
+     * и переносит файлы в target.
+     * @return false, если потоковая распаковка не удалась или ничего не успела - тогда распаковать заново
+     */
+    public boolean finish(Path archive, Path target) throws IOException
+    {
+        boolean started;
+
+        synchronized (this)
+        {
+            started = available > 0;
+            this.archive = archive;
+            notifyAll();
+        }
+
+        if (!started)
+        {
+            // файл взят целиком из хранилища, перекрывать нечего - быстрее распаковать параллельно
+            abort();
+            return false;
+        }
+
+        try {
+            done.join();
+        } catch (Exception e)
+        {
+            System.out.println("--> Потоковая распаковка не удалась: " + RetryPolicy.unwrap(e).getMessage());
+            abort();
+            return false;
+        }
+
+        if (!matchesCentralDirectory(archive))
+        {
+            System.out.println("--> Распакованное не совпало с центральным каталогом архива");
+            abort();
+            return false;
+        }
+
+        moveInto(target);
+        deleteStaging();
+        return true;
+    }
+
+    /**
+     * Останавливает распаковку и удаляет временный каталог. После finish() ничего не делает.
+     */
+    public void abort()
+    {
+        synchronized (this)
+        {
+            aborted = true;
+            notifyAll();
+        }
+
+        done.exceptionally(e -> null).join();
+
+        try {
+            deleteStaging();
+        } catch (IOException e) {
+            System.err.println("--> Не удалось удалить " + staging + ": " + e.getMessage());
+        }
+    }
+
+    private void extract() throws IOException
+    {
+        Path root = staging.toAbsolutePath().normalize();
+
+        try (ZipInputStream zip = new ZipInputStream(new PrefixStream()))
+        {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null)
+            {
+                Path target = ZipExtractor.resolve(root, entry.getName());
+
+                if (entry.isDirectory())
+                {
+                    Files.createDirectories(target);
+                    continue;
+                }
+
+                Files.createDirectories(target.getParent());
+                ZipExtractor.copy(zip, target);
+
+                // ZipInputStream уже сверил CRC данных с заголовком записи
+                extracted.put(entry.getName(), new long[]{entry.getSize(), entry.getCrc()});
+            }
+        }
+    }
+
+    private boolean matchesCentralDirectory(Path archive) throws IOException
+    {
+        int files = 0;
+
+        try (ZipFile zip = new ZipFile(archive.toFile()))
+        {
+            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); )
+            {
+                ZipEntry entry = e.nextElement();
+                if (entry.isDirectory()) continue;
+
+                long[] local = extracted.get(entry.getName());
+                if (local == null || local[0] != entry.getSize() || local[1] != entry.getCrc()) {
+                    return false;
+                }
+
+                files++;
+            }
+        }
+
+        return files == extracted.size();
+    }
+
+    private void moveInto(Path target) throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(staging))
+        {
+            for (Path path : (Iterable<Path>) paths::iterator)
+            {
+                Path dest = target.resolve(staging.relativize(path).toString());
+
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(dest);
+                } else {
+                    Files.move(path, dest, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private void deleteStaging() throws IOException
+    {
+        if (!Files.exists(staging)) return;
+
+        try (Stream<Path> paths = Files.walk(staging))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Ждёт, пока байты с нужной позиции не окажутся в непрерывном префиксе.
+     * @return до какой позиции можно читать, -1 - конец архива
+     */
+    private synchronized long awaitAvailable(long position) throws IOException
+    {
+        while (!aborted && archive == null && available <= position)
+        {
+            try {
+                wait();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("Распаковка прервана", e);
+            }
+        }
+
+        if (aborted) {
+            throw new IOException("Распаковка отменена");
+        }
+
+        return archive != null ? Long.MAX_VALUE : available;
+    }
+
+    private synchronized Path source() {
+        return archive != null ? archive : part;
+    }
+
+    /**
+     * .part файл как поток, который блокируется у границы скачанного префикса.
+     * Канал открыт до конца: переименование .part в архив его не ломает.
+     */
+    private final class PrefixStream extends InputStream
+    {
+        private FileChannel channel;
+        private long position;
+
+        @Override
+        public int read() throws IOException
+        {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0) return 0;
+
+            long limit = awaitAvailable(position);
+
+            if (channel == null) {
+                channel = FileChannel.open(source(), StandardOpenOption.READ);
+            }
+
+            int n = (int) Math.min(len, limit - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, n), position);
+
+            if (read > 0) {
+                position += read;
+            }
+
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+//////////////////////////////////////////////////////
+//// @File service/VersionRegistry.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.vxlauncher.model.VersionMetadata;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Установленные версии в памяти, чтобы UI не ходил на диск. Строится один раз в фоне,
+ * дальше обновляется по событиям WatchService на папке versions и папках версий.
+ * Скрытые папки (.staging, .old) не версии и игнорируются.
+ */
+public class VersionRegistry implements Closeable
+{
+    private final InstallationService installer;
+    private final Path versionsDir;
+
+    private final Map<String, VersionMetadata> installed = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watched = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile WatchService watcher;
+    private volatile boolean ready;
+
+    public VersionRegistry(InstallationService installer, Path versionsDir)
+    {
+        this.installer = installer;
+        this.versionsDir = versionsDir;
+    }
+
+    /**
+     * Запускает первичный обход и наблюдение в фоновом потоке.
+     */
+    public void start()
+    {
+        Thread thread = new Thread(this::run, "version-registry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Вызывается из фонового потока после первичного обхода и при каждом изменении набора версий.
+     */
+    public void onChange(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isInstalled(String version) {
+        return version != null && installed.containsKey(version);
+    }
+
+    /**
+     * @return null, если версия не установлена
+     */
+    public VersionMetadata get(String version) {
+        return version != null ? installed.get(version) : null;
+    }
+
+    public Map<String, VersionMetadata> getInstalled() {
+        return Collections.unmodifiableMap(installed);
+    }
+
+    /**
+     * Перечитывает одну версию сразу, не дожидаясь события: после установки или отмены,
+     * и там, где WatchService опрашивает диск с задержкой.
+     */
+    public void refresh(String version)
+    {
+        if (update(version)) {
+            fire();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        WatchService current = watcher;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void run()
+    {
+        try (WatchService service = FileSystems.getDefault().newWatchService())
+        {
+            watcher = service;
+
+            Files.createDirectories(versionsDir);
+            register(versionsDir);
+            rescan();
+
+            ready = true;
+            fire();
+
+            while (true)
+            {
+                WatchKey key = service.take();
+                Path dir = watched.get(key);
+                boolean changed = false;
+
+                for (WatchEvent<?> event : key.pollEvents())
+                {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                    {
+                        changed |= rescan();
+                        continue;
+                    }
+
+                    if (dir == null) continue;
+
+                    // событие в самой versions - это папка версии, в папке версии - её файл
+                    boolean top = dir.equals(versionsDir);
+                    String version = top ? ((Path) event.context()).toString() : dir.getFileName().toString();
+                    if (version.startsWith(".")) continue;
+
+                    if (top && event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        unregister(versionsDir.resolve(version));
+                    } else if (top && event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        // установка переносится на место переименованием, старый ключ смотрит на .old
+                        unregister(versionsDir.resolve(version));
+                        register(versionsDir.resolve(version));
+                    }
+
+                    changed |= update(version);
+                }
+
+                if (!key.reset()) {
+                    watched.remove(key);
+                }
+
+                if (changed) {
+                    fire();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // close()
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e)
+        {
+            // без наблюдения список всё равно держится актуальным через refresh()
+            System.err.println("--> Наблюдение за папкой версий недоступно: " + e.getMessage());
+            rescan();
+            ready = true;
+            fire();
+        }
+    }
+
+    /**
+     * Полный обход versions: при старте и после переполнения очереди событий.
+     * @return изменился ли набор версий
+     */
+    private boolean rescan()
+    {
+        Set<String> present = new HashSet<>();
+
+        try (Stream<Path> dirs = Files.list(versionsDir))
+        {
+            for (Path dir : (Iterable<Path>) dirs::iterator)
+            {
+                String version = dir.getFileName().toString();
+
+                if (!version.startsWith(".") && Files.isDirectory(dir))
+                {
+                    present.add(version);
+                    register(dir);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("--> Не удалось прочитать папку версий: " + e.getMessage());
+        }
+
+        boolean changed = installed.keySet().retainAll(present);
+
+        for (String version : present) {
+            changed |= update(version);
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return изменилось ли, установлена ли версия и её метка
+     */
+    private synchronized boolean update(String version)
+    {
+        VersionMetadata metadata = installer.readMetadata(version);
+        VersionMetadata previous = metadata != null ? installed.put(version, metadata) : installed.remove(version);
+
+        if (metadata == null || previous == null) {
+            return metadata != previous;
+        }
+
+        return metadata.getInstalledAt() != previous.getInstalledAt();
+    }
+
+    private void register(Path dir)
+    {
+        WatchService service = watcher;
+        if (service == null || watched.containsValue(dir)) return;
+
+        try {
+            WatchKey key = dir.register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+
+            watched.put(key, dir);
+        } catch (IOException | ClosedWatchServiceException e) {
+            // папку успели удалить - её событие придёт из versions
+        }
+    }
+
+    private void unregister(Path dir)
+    {
+        watched.entrySet().removeIf(e ->
+        {
+            if (!e.getValue().equals(dir)) return false;
+
+            e.getKey().cancel();
+            return true;
+        });
+    }
+
+    private void fire()
+    {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+}
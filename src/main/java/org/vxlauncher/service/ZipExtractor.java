@@ -0,0 +1,262 @@
+//////////////////////////////////////////////////////
+//// @File service/ZipExtractor.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Распаковка через ZipFile с произвольным доступом: записи разжимаются параллельно
+ * на ограниченном пуле, каждая пишется в свой FileChannel крупными позиционными записями.
+ * Дерево каталогов создаётся заранее одним проходом. Имена, выходящие за destDir, отвергаются.
+ * С файлом checkpoint распаковку можно прервать и продолжить: готовые записи пропускаются.
+ */
+public final class ZipExtractor
+{
+    private static final int WRITE_BUFFER = 1024 * 1024; // 1 MB
+    private static final int WORKER_COUNT = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_COUNT, r ->
+    {
+        Thread t = new Thread(r, "unzip-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[WRITE_BUFFER]);
+
+    private ZipExtractor() {
+    }
+
+    public static void extract(Path zipFile, Path destDir) throws IOException {
+        extract(zipFile, destDir, null);
+    }
+
+    /**
+     * @param checkpoint файл, куда дописывается каждая готовая запись (CRC, размер, имя), null - без него
+     */
+    public static void extract(Path zipFile, Path destDir, Path checkpoint) throws IOException {
+        extract(zipFile, destDir, checkpoint, ProgressListener.NONE);
+    }
+
+    /**
+     * @param progress распакованные байты из общего размера файлов архива, после каждой записи
+     */
+    public static void extract(Path zipFile, Path destDir, Path checkpoint, ProgressListener progress) throws IOException
+    {
+        Path root = destDir.toAbsolutePath().normalize();
+        Set<String> finished = checkpoint != null ? readCheckpoint(checkpoint) : Set.of();
+
+        try (ZipFile zip = new ZipFile(zipFile.toFile());
+             FileChannel log = checkpoint != null ? openCheckpoint(checkpoint) : null)
+        {
+            List<ZipEntry> files = new ArrayList<>();
+            TreeSet<Path> dirs = new TreeSet<>();
+            dirs.add(root);
+
+            long total = 0;
+
+            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); )
+            {
+                ZipEntry entry = e.nextElement();
+                Path target = resolve(root, entry.getName());
+
+                if (entry.isDirectory())
+                {
+                    dirs.add(target);
+                }
+                else
+                {
+                    if (target.equals(root)) {
+                        throw new IOException("Недопустимый путь в архиве: " + entry.getName());
+                    }
+
+                    dirs.add(target.getParent());
+                    total += entry.getSize();
+
+                    if (!finished.contains(checkpointLine(entry)) || !Files.exists(target) || Files.size(target) != entry.getSize()) {
+                        files.add(entry);
+                    }
+                }
+            }
+
+            if (!finished.isEmpty()) {
+                System.out.println("--> Продолжение распаковки, осталось записей: " + files.size());
+            }
+
+            // родитель раньше потомка, так что createDirectories почти всегда создаёт один каталог
+            for (Path dir : dirs) {
+                Files.createDirectories(dir);
+            }
+
+            // крупные записи первыми, чтобы под конец потоки не ждали одну большую
+            files.sort(Comparator.comparingLong(ZipEntry::getSize).reversed());
+
+            long size = total;
+            AtomicLong done = new AtomicLong(total - files.stream().mapToLong(ZipEntry::getSize).sum());
+
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(files.size());
+            for (ZipEntry entry : files)
+            {
+                tasks.add(CompletableFuture.runAsync(() ->
+                {
+                    try {
+                        write(zip, entry, resolve(root, entry.getName()));
+
+                        if (log != null) {
+                            appendCheckpoint(log, entry);
+                        }
+
+                        progress.onProgress(done.addAndGet(entry.getSize()), size);
+                    } catch (IOException ex) {
+                        throw new CompletionException(ex);
+                    }
+                }, WORKERS));
+            }
+
+            try {
+                CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e)
+            {
+                // не начатые записи снимаются, начатые дожидаемся, пока ZipFile ещё открыт
+                tasks.forEach(t -> t.cancel(false));
+                CompletableFuture.allOf(tasks.stream()
+                        .map(t -> t.exceptionally(ex -> null))
+                        .toArray(CompletableFuture<?>[]::new)).join();
+
+                Throwable cause = RetryPolicy.unwrap(e);
+
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                throw new IOException("Ошибка распаковки: " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Путь записи внутри root; запись с абсолютным путём или ../ за пределы root - ошибка (zip slip).
+     */
+    static Path resolve(Path root, String name) throws IOException
+    {
+        Path target = root.resolve(name).normalize();
+
+        if (!target.startsWith(root)) {
+            throw new IOException("Недопустимый путь в архиве: " + name);
+        }
+
+        return target;
+    }
+
+    private static String checkpointLine(ZipEntry entry) {
+        return Long.toHexString(entry.getCrc()) + " " + entry.getSize() + " " + entry.getName();
+    }
+
+    private static Set<String> readCheckpoint(Path checkpoint) throws IOException
+    {
+        if (!Files.exists(checkpoint)) {
+            return Set.of();
+        }
+
+        // оборванная при сбое последняя строка просто ни с чем не совпадёт
+        return new HashSet<>(Files.readAllLines(checkpoint, StandardCharsets.UTF_8));
+    }
+
+    private static FileChannel openCheckpoint(Path checkpoint) throws IOException
+    {
+        FileChannel log = FileChannel.open(checkpoint,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        // оборванная сбоем строка отрезается, иначе к ней приклеилась бы первая новая запись
+        long end = log.size();
+        ByteBuffer last = ByteBuffer.allocate(1);
+
+        while (end > 0)
+        {
+            last.clear();
+            log.read(last, end - 1);
+            if (last.get(0) == '\n') break;
+            end--;
+        }
+
+        log.truncate(end);
+        log.position(end);
+        return log;
+    }
+
+    private static void appendCheckpoint(FileChannel log, ZipEntry entry) throws IOException
+    {
+        ByteBuffer line = ByteBuffer.wrap((checkpointLine(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        // записи завершаются в разных потоках, строки не должны перемешаться
+        synchronized (log)
+        {
+            while (line.hasRemaining()) {
+                log.write(line);
+            }
+        }
+    }
+
+    private static void write(ZipFile zip, ZipEntry entry, Path target) throws IOException
+    {
+        try (InputStream in = zip.getInputStream(entry)) {
+            copy(in, target);
+        }
+    }
+
+    /**
+     * Переписывает поток в файл позиционными записями по WRITE_BUFFER.
+     */
+    static void copy(InputStream in, Path target) throws IOException
+    {
+        byte[] buffer = BUFFERS.get();
+
+        try (FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            long position = 0;
+
+            while (true)
+            {
+                int filled = in.readNBytes(buffer, 0, buffer.length);
+                if (filled == 0) break;
+
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, filled);
+                while (data.hasRemaining()) {
+                    position += out.write(data, position);
+                }
+
+                if (filled < buffer.length) break;
+            }
+        }
+    }
+}
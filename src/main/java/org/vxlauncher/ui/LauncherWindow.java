@@ -6,6 +6,7 @@
 
 package org.vxlauncher.ui;
 
+import org.vxlauncher.model.DownloadProgress;
 import org.vxlauncher.model.OSType;
 import org.vxlauncher.model.ReleaseInfo;
 import org.vxlauncher.service.*;
@@ -17,9 +18,13 @@ import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class LauncherWindow extends JFrame
 {
@@ -34,11 +39,14 @@ public class LauncherWindow extends JFrame
 
     private JComboBox<String> versionComboBox;
     private JButton installBtn, launchBtn;
+    private JButton pauseBtn, cancelBtn;
+    private JButton verifyBtn, dedupBtn, cacheBtn;
     private JProgressBar progressBar;
     private JLabel statusLabel;
     private JLabel downloadSpeedLabel;
     private final JTextArea logArea = new JTextArea(10, 50);
     private JCheckBox autoLaunchCheck;
+    private JCheckBox pinCheck;
     private JPanel versionInfoPanel;
     private JLabel versionSizeLabel;
 
@@ -47,10 +55,14 @@ public class LauncherWindow extends JFrame
 
     private final FileService fileSrv = new FileService();
     private final ReleaseService relSrv;
+    private final DownloadService dlSrv;
     private final InstallationService instSrv;
+    private final VersionRegistry versions;
+    private final ColdStorage cold;
+    private final StorageManager storage;
     private final LaunchService launchSrv;
+    private final DownloadQueue queue;
 
-    private long downloadStartTime;
     private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
 
     public LauncherWindow()
@@ -59,14 +71,52 @@ public class LauncherWindow extends JFrame
         FontManager.loadFonts();
 
         relSrv = new ReleaseService(os);
-        DownloadService dlSrv = new DownloadService();
+        dlSrv = new DownloadService();
         instSrv = new InstallationService(fileSrv, dlSrv, os, AppInfo.getVersionsDir());
-        launchSrv = new LaunchService(fileSrv, os, AppInfo.getVersionsDir());
+        versions = new VersionRegistry(instSrv, Paths.get(AppInfo.getVersionsDir()));
+        cold = new ColdStorage(fileSrv, Paths.get(AppInfo.getVersionsDir()));
+        launchSrv = new LaunchService(fileSrv, os, AppInfo.getVersionsDir(), versions, cold);
+        storage = new StorageManager(fileSrv, Paths.get(AppInfo.getAppDir()), Paths.get(AppInfo.getVersionsDir()),
+                dlSrv.getArtifactStore(), cold);
+        queue = new DownloadQueue(instSrv, 2);
 
         initDirs();
         applyDarkTheme();
         buildUI();
+
+        versions.onChange(() -> SwingUtilities.invokeLater(this::updateBtns));
+        versions.start();
         loadReleases();
+        maintainStorage();
+    }
+
+    /**
+     * Уборка в фоне при старте: остатки установок и версии по правилам хранения, затем
+     * упаковка давно не запускавшихся. Запущенные и устанавливаемые версии не трогаются.
+     */
+    private void maintainStorage()
+    {
+        CompletableFuture.runAsync(() -> {
+            StorageManager.Report report = storage.collect(this::isBusy);
+
+            if (!report.removed().isEmpty()) {
+                log("Удалены версии по правилам хранения: " + String.join(", ", report.removed()), LogLevel.INFO);
+            }
+
+            if (report.freed() > 0) {
+                log("Уборка: освобождено " + formatSize(report.freed()), LogLevel.INFO);
+            }
+
+            long freed = cold.compact(ColdStorage.IDLE, this::isBusy);
+
+            if (freed > 0) {
+                log("Давно не запускавшиеся версии упакованы, освобождено " + formatSize(freed), LogLevel.INFO);
+            }
+        });
+    }
+
+    private boolean isBusy(String version) {
+        return launchSrv.isRunning(version) || queue.get(version) != null;
     }
 
     private void applyDarkTheme()
@@ -252,6 +302,11 @@ public class LauncherWindow extends JFrame
         });
 
         versionComboBox.addActionListener(e -> {
+            String selected = (String) versionComboBox.getSelectedItem();
+            if (selected != null) {
+                queue.prioritize(selected);
+            }
+
             updateBtns();
             updateVersionInfo();
         });
@@ -327,6 +382,36 @@ public class LauncherWindow extends JFrame
         autoLaunchCheck.setFocusPainted(false);
         optionsPanel.add(autoLaunchCheck);
 
+        pinCheck = new JCheckBox("Не удалять версию");
+        pinCheck.setFont(FontManager.getFont(FontManager.JETBRAINS_MONO_REGULAR, FontManager.SIZE_SMALL));
+        pinCheck.setBackground(BG_PRIMARY);
+        pinCheck.setForeground(TEXT_PRIMARY);
+        pinCheck.setFocusPainted(false);
+        pinCheck.setToolTipText("Уборка по правилам хранения (storage.json) не удалит эту версию");
+        pinCheck.addActionListener(e -> {
+            String v = (String) versionComboBox.getSelectedItem();
+            if (v != null) storage.pin(v, pinCheck.isSelected());
+        });
+        optionsPanel.add(pinCheck);
+
+        verifyBtn = createStyledButton("Проверить файлы", BG_TERTIARY, false);
+        verifyBtn.setPreferredSize(new Dimension(200, 32));
+        verifyBtn.setToolTipText("Проверить версию и восстановить повреждённые файлы (с Shift - полная проверка)");
+        verifyBtn.addActionListener(e -> repair((e.getModifiers() & java.awt.event.ActionEvent.SHIFT_MASK) != 0));
+        optionsPanel.add(verifyBtn);
+
+        dedupBtn = createStyledButton("Объединить копии", BG_TERTIARY, true);
+        dedupBtn.setPreferredSize(new Dimension(220, 32));
+        dedupBtn.setToolTipText("Хранить одинаковые файлы разных версий один раз");
+        dedupBtn.addActionListener(e -> deduplicate());
+        optionsPanel.add(dedupBtn);
+
+        cacheBtn = createStyledButton("Очистить кэш", BG_TERTIARY, true);
+        cacheBtn.setPreferredSize(new Dimension(180, 32));
+        cacheBtn.setToolTipText("Удалить скачанные архивы и остатки прерванных установок");
+        cacheBtn.addActionListener(e -> clearCache());
+        optionsPanel.add(cacheBtn);
+
         gbc.gridy = 2;
         panel.add(optionsPanel, gbc);
 
@@ -365,9 +450,25 @@ public class LauncherWindow extends JFrame
         progressBar.setAlignmentX(Component.LEFT_ALIGNMENT);
         progressBar.setUI(new DarkProgressBarUI());
 
+        pauseBtn = createStyledButton("Пауза", BG_TERTIARY, false);
+        pauseBtn.setPreferredSize(new Dimension(160, 32));
+        pauseBtn.addActionListener(e -> togglePause());
+
+        cancelBtn = createStyledButton("Отмена", BG_TERTIARY, false);
+        cancelBtn.setPreferredSize(new Dimension(160, 32));
+        cancelBtn.addActionListener(e -> cancelInstall());
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 8));
+        controls.setBackground(BG_SECONDARY);
+        controls.setAlignmentX(Component.LEFT_ALIGNMENT);
+        controls.add(pauseBtn);
+        controls.add(Box.createHorizontalStrut(10));
+        controls.add(cancelBtn);
+
         panel.add(statusLabel);
         panel.add(downloadSpeedLabel);
         panel.add(progressBar);
+        panel.add(controls);
 
         JPanel wrapper = new JPanel(new BorderLayout());
         wrapper.setBackground(BG_PRIMARY);
@@ -563,15 +664,39 @@ public class LauncherWindow extends JFrame
 
     private void clearCache()
     {
-        int result = JOptionPane.showConfirmDialog(this,
-                "Очистить временные файлы и кэш?\nЭто не удалит установленные версии.",
-                "Очистка кэша",
-                JOptionPane.YES_NO_OPTION);
-
-        if (result == JOptionPane.YES_OPTION) {
-            log("Очистка кэша...", LogLevel.INFO);
-            log("Кэш очищен", LogLevel.SUCCESS);
-        }
+        cacheBtn.setEnabled(false);
+
+        CompletableFuture.supplyAsync(storage::measure).whenComplete((usage, error) -> SwingUtilities.invokeLater(() -> {
+            cacheBtn.setEnabled(true);
+
+            if (error != null) {
+                log("Не удалось подсчитать занятое место: " + error.getMessage(), LogLevel.ERROR);
+                return;
+            }
+
+            ArtifactStore store = dlSrv.getArtifactStore();
+
+            int result = JOptionPane.showConfirmDialog(this,
+                    "Очистить временные файлы и кэш?\n"
+                            + "Скачанные файлы: " + formatSize(usage.store())
+                            + (store != null ? " (лимит " + formatSize(store.getMaxBytes()) + ")" : "") + "\n"
+                            + "Недокачанное и остатки установок: " + formatSize(usage.partial()) + "\n"
+                            + "Установленные версии: " + usage.versions().size() + ", " + formatSize(usage.versionsTotal()) + "\n"
+                            + "Всего занято: " + formatSize(usage.total()) + "\n"
+                            + "Это не удалит установленные версии.",
+                    "Очистка кэша",
+                    JOptionPane.YES_NO_OPTION);
+
+            if (result == JOptionPane.YES_OPTION) {
+                log("Очистка кэша...", LogLevel.INFO);
+
+                CompletableFuture.runAsync(() -> {
+                    long freed = store != null ? store.clear() : 0;
+                    freed += storage.collectPartial(this::isBusy, Duration.ZERO);
+                    log("Кэш очищен, освобождено " + formatSize(freed), LogLevel.SUCCESS);
+                });
+            }
+        }));
     }
 
     private void openSettings()
@@ -627,30 +752,42 @@ public class LauncherWindow extends JFrame
         String v = (String) versionComboBox.getSelectedItem();
         if (v == null || !releases.containsKey(v)) return;
 
+        if (queue.get(v) != null) {
+            queue.prioritize(v);
+            return;
+        }
+
         progressBar.getParent().setVisible(true);
         progressBar.setValue(0);
-        installBtn.setEnabled(false);
         launchBtn.setEnabled(false);
-        downloadStartTime = System.currentTimeMillis();
 
         SwingUtilities.invokeLater(() -> statusLabel.setText("Установка " + v + "..."));
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                log("Начало установки версии " + v, LogLevel.INFO);
-                instSrv.install(releases.get(v),
-                        msg -> log(msg, LogLevel.INFO),
-                        prog -> SwingUtilities.invokeLater(() -> {
-                            progressBar.setValue(prog);
-                            updateDownloadSpeed(prog);
-                        }));
+        ProgressTracker tracker = new ProgressTracker(
+                p -> SwingUtilities.invokeLater(() -> {
+                    if (v.equals(versionComboBox.getSelectedItem())) {
+                        updateDownloadSpeed(p);
+                    }
+                }),
+                msg -> log(msg, LogLevel.WARNING));
+
+        log("Начало установки версии " + v, LogLevel.INFO);
+        DownloadQueue.Job job = queue.submit(releases.get(v), msg -> log(msg, LogLevel.INFO), tracker);
+        job.onStateChanged(state -> SwingUtilities.invokeLater(this::updateBtns));
+        updateBtns();
 
+        job.getResult().whenComplete((r, e) -> {
+            tracker.close();
+            versions.refresh(v);
+
+            if (e == null)
+            {
                 SwingUtilities.invokeLater(() -> {
                     progressBar.setValue(100);
                     statusLabel.setText("✓ Установка завершена!");
                     downloadSpeedLabel.setText("Готово!");
 
-                    Timer timer = new Timer(2000, e -> {
+                    Timer timer = new Timer(2000, ev -> {
                         progressBar.getParent().setVisible(false);
                         progressBar.setValue(0);
                     });
@@ -660,44 +797,167 @@ public class LauncherWindow extends JFrame
                     updateBtns();
                     log("Версия " + v + " успешно установлена!", LogLevel.SUCCESS);
 
-                    if (autoLaunchCheck.isSelected()) {
-                        Timer launchTimer = new Timer(500, e -> launch());
+                    if (autoLaunchCheck.isSelected() && v.equals(versionComboBox.getSelectedItem())) {
+                        Timer launchTimer = new Timer(500, ev -> launch());
                         launchTimer.setRepeats(false);
                         launchTimer.start();
                     }
                 });
-            } catch (Exception e) {
+            }
+            else if (e instanceof CancellationException)
+            {
+                log("Установка версии " + v + " отменена", LogLevel.WARNING);
+                SwingUtilities.invokeLater(() -> {
+                    progressBar.getParent().setVisible(false);
+                    statusLabel.setText("Установка отменена");
+                    updateBtns();
+                });
+            }
+            else
+            {
                 log("Ошибка установки: " + e.getMessage(), LogLevel.ERROR);
                 SwingUtilities.invokeLater(() -> {
                     progressBar.getParent().setVisible(false);
                     statusLabel.setText("Ошибка установки");
-                    installBtn.setEnabled(true);
+                    updateBtns();
                     showError("Ошибка установки", e.getMessage());
                 });
             }
         });
     }
 
-    private void updateDownloadSpeed(int progress)
+    private void repair(boolean full)
     {
-        if (progress == 0) return;
-        long elapsedTime = (System.currentTimeMillis() - downloadStartTime) / 1000;
-        if (elapsedTime > 0) {
-            downloadSpeedLabel.setText("Выполняется загрузка..");
+        String v = (String) versionComboBox.getSelectedItem();
+        if (v == null || !releases.containsKey(v)) return;
+
+        verifyBtn.setEnabled(false);
+        launchBtn.setEnabled(false);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                int repaired = instSrv.repair(releases.get(v), msg -> log(msg, LogLevel.INFO), ProgressListener.NONE, full);
+
+                if (repaired > 0) {
+                    log("Версия " + v + " восстановлена", LogLevel.SUCCESS);
+                }
+            } catch (Exception e) {
+                log("Ошибка проверки: " + e.getMessage(), LogLevel.ERROR);
+                showError("Ошибка проверки", e.getMessage());
+            } finally {
+                SwingUtilities.invokeLater(this::updateBtns);
+            }
+        });
+    }
+
+    private void deduplicate()
+    {
+        dedupBtn.setEnabled(false);
+        log("Поиск одинаковых файлов в версиях...", LogLevel.INFO);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                Deduplicator.Report report = fileSrv.deduplicate(Paths.get(AppInfo.getVersionsDir()));
+                log("Объединено файлов: " + report.linked() + ", освобождено " + formatSize(report.reclaimed())
+                        + " (уже общих: " + report.alreadyShared() + ")", LogLevel.SUCCESS);
+            } catch (Exception e) {
+                log("Ошибка объединения: " + e.getMessage(), LogLevel.ERROR);
+            } finally {
+                SwingUtilities.invokeLater(() -> dedupBtn.setEnabled(true));
+            }
+        });
+    }
+
+    private void togglePause()
+    {
+        String v = (String) versionComboBox.getSelectedItem();
+        DownloadQueue.Job job = v != null ? queue.get(v) : null;
+        if (job == null) return;
+
+        if (job.getState() == DownloadQueue.State.PAUSED) {
+            log("Продолжение загрузки " + v, LogLevel.INFO);
+            queue.resume(v);
+        } else {
+            queue.pause(v);
+        }
+    }
+
+    private void cancelInstall()
+    {
+        String v = (String) versionComboBox.getSelectedItem();
+        if (v != null && queue.get(v) != null) {
+            queue.cancel(v);
         }
     }
 
+    private void updateDownloadSpeed(DownloadProgress progress)
+    {
+        if (progress.getTotalBytes() > 0) {
+            progressBar.setValue(progress.getPercent());
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(formatSize(progress.getBytesDone()));
+
+        if (progress.getTotalBytes() > 0) {
+            text.append(" / ").append(formatSize(progress.getTotalBytes()));
+        }
+
+        text.append("  •  ").append(formatSize((long) progress.getAverageRate())).append("/с");
+
+        long eta = progress.getEtaSeconds();
+        if (eta >= 0) {
+            text.append("  •  осталось ").append(formatDuration(eta));
+        }
+
+        int connections = progress.getConnections().size();
+        if (connections > 0) {
+            text.append("  •  соединений: ").append(connections);
+        }
+
+        downloadSpeedLabel.setText(text.toString());
+    }
+
+    private String formatDuration(long seconds)
+    {
+        if (seconds < 60) return seconds + " с";
+        if (seconds < 3600) return String.format("%d:%02d", seconds / 60, seconds % 60);
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
     private void launch()
     {
         String v = (String) versionComboBox.getSelectedItem();
         if (v == null) return;
 
+        // прогресс нужен, только если версия упакована и распаковывается
+        AtomicBoolean unpacking = new AtomicBoolean();
+        ProgressListener unpack = (done, total) -> {
+            if (!unpacking.getAndSet(true)) {
+                SwingUtilities.invokeLater(() -> {
+                    progressBar.getParent().setVisible(true);
+                    statusLabel.setText("Распаковка " + v + "...");
+                });
+            }
+
+            int percent = total > 0 ? (int) (done * 100 / total) : 0;
+            SwingUtilities.invokeLater(() -> progressBar.setValue(Math.max(1, percent)));
+        };
+
         CompletableFuture.runAsync(() -> {
             try {
-                launchSrv.launch(v, msg -> log(msg, LogLevel.INFO));
+                launchSrv.launch(v, msg -> log(msg, LogLevel.INFO), unpack);
             } catch (Exception e) {
                 log("Ошибка запуска: " + e.getMessage(), LogLevel.ERROR);
                 showError("Ошибка запуска", e.getMessage());
+            } finally {
+                if (unpacking.get()) {
+                    SwingUtilities.invokeLater(() -> {
+                        progressBar.getParent().setVisible(false);
+                        progressBar.setValue(0);
+                        statusLabel.setText("Готов к работе");
+                    });
+                }
             }
         });
     }
@@ -706,15 +966,45 @@ public class LauncherWindow extends JFrame
     {
         String v = (String) versionComboBox.getSelectedItem();
 
-        if (v == null || v.startsWith("Загрузка версий..")) {
+        // пока список установленных версий не построен, неизвестно, что предлагать
+        if (v == null || v.startsWith("Загрузка версий..") || !versions.isReady()) {
+            installBtn.setEnabled(false);
+            launchBtn.setEnabled(false);
+            pauseBtn.setEnabled(false);
+            cancelBtn.setEnabled(false);
+            verifyBtn.setEnabled(false);
+            pinCheck.setEnabled(false);
+            return;
+        }
+
+        pinCheck.setSelected(storage.isPinned(v));
+
+        DownloadQueue.Job job = queue.get(v);
+        pauseBtn.setEnabled(job != null);
+        cancelBtn.setEnabled(job != null);
+
+        if (job != null)
+        {
             installBtn.setEnabled(false);
             launchBtn.setEnabled(false);
+            verifyBtn.setEnabled(false);
+            pinCheck.setEnabled(false);
+
+            switch (job.getState()) {
+                case QUEUED -> installBtn.setText("В очереди...");
+                case PAUSED -> installBtn.setText("Пауза");
+                default -> installBtn.setText("Установка...");
+            }
+
+            pauseBtn.setText(job.getState() == DownloadQueue.State.PAUSED ? "Продолжить" : "Пауза");
             return;
         }
 
-        boolean installed = instSrv.isVersionInstalled(v);
+        boolean installed = versions.isInstalled(v);
         installBtn.setEnabled(!installed);
         launchBtn.setEnabled(installed);
+        verifyBtn.setEnabled(installed);
+        pinCheck.setEnabled(installed);
 
         if (installed) {
             installBtn.setText("✓ Установлено");
@@ -0,0 +1,172 @@
+//////////////////////////////////////////////////////
+//// @File service/BlockManifestTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BlockManifestTest
+{
+    private static final int BLOCK_SIZE = 16 * 1024;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void entriesMatchParseScript() throws Exception
+    {
+        byte[] block = new byte[BLOCK_SIZE];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) ((i * 31 + 7) % 251);
+        }
+
+        // посчитано weak_checksum() и sha256()[:8] из scripts/parse.py
+        assertArrayEquals(HexFormat.of().parseHex("53e13f52e6494c86814963a7"), entries(block));
+    }
+
+    @Test
+    void parsesManifest() throws Exception
+    {
+        byte[] data = random(3 * BLOCK_SIZE + 100, 1);
+        BlockManifest manifest = BlockManifest.parse(manifest(data));
+
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)), manifest.getSha256());
+    }
+
+    @Test
+    void rejectsBrokenManifests()
+    {
+        String blocks = Base64.getEncoder().encodeToString(new byte[24]);
+
+        // два блока на файл из трёх
+        assertThrows(IOException.class, () -> BlockManifest.parse(
+                "{\"size\": " + 3 * BLOCK_SIZE + ", \"block_size\": " + BLOCK_SIZE + ", \"blocks\": \"" + blocks + "\"}"));
+        // запись не кратна 12 байтам
+        assertThrows(IOException.class, () -> BlockManifest.parse(
+                "{\"size\": " + BLOCK_SIZE + ", \"block_size\": " + BLOCK_SIZE + ", \"blocks\": \"AAAA\"}"));
+        assertThrows(IOException.class, () -> BlockManifest.parse(
+                "{\"size\": 0, \"block_size\": 0, \"blocks\": \"\"}"));
+        assertThrows(IOException.class, () -> BlockManifest.parse(
+                "{\"size\": 0, \"block_size\": " + BLOCK_SIZE + ", \"blocks\": \"***\"}"));
+        assertThrows(IOException.class, () -> BlockManifest.parse("<html>502</html>"));
+        assertThrows(IOException.class, () -> BlockManifest.parse("{\"size\": 1}"));
+    }
+
+    @Test
+    void seedsMatchingBlocksFromOldFile() throws Exception
+    {
+        byte[] fresh = random(4 * BLOCK_SIZE + 100, 2);
+
+        // старая версия: мусор в начале сдвигает блоки, третий блок изменён
+        ByteArrayOutputStream old = new ByteArrayOutputStream();
+        old.write(random(37, 3));
+        old.write(fresh, 0, 2 * BLOCK_SIZE);
+        old.write(random(BLOCK_SIZE, 4));
+        old.write(fresh, 3 * BLOCK_SIZE, BLOCK_SIZE);
+        old.write(random(500, 5));
+
+        Path source = tmp.resolve("old.zip");
+        Files.write(source, old.toByteArray());
+
+        BlockManifest manifest = BlockManifest.parse(manifest(fresh));
+        DownloadJournal journal = DownloadJournal.open(tmp.resolve("new.zip.journal"), "https://example.com/new.zip", fresh.length, "e1", null);
+        Path part = tmp.resolve("new.zip.part");
+
+        try (FileChannel target = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            assertEquals(3L * BLOCK_SIZE, manifest.seed(source, target, journal));
+
+            List<long[]> missing = journal.missing(0, fresh.length);
+            assertEquals(2, missing.size());
+            assertArrayEquals(new long[]{2L * BLOCK_SIZE, 3L * BLOCK_SIZE}, missing.get(0));
+            assertArrayEquals(new long[]{4L * BLOCK_SIZE, fresh.length}, missing.get(1));
+
+            for (int block : new int[]{0, 1, 3})
+            {
+                ByteBuffer read = ByteBuffer.allocate(BLOCK_SIZE);
+                target.read(read, (long) block * BLOCK_SIZE);
+                assertArrayEquals(Arrays.copyOfRange(fresh, block * BLOCK_SIZE, (block + 1) * BLOCK_SIZE), read.array());
+            }
+        }
+    }
+
+    @Test
+    void ignoresTooShortSource() throws Exception
+    {
+        byte[] fresh = random(2 * BLOCK_SIZE, 6);
+        Path source = tmp.resolve("old.zip");
+        Files.write(source, Arrays.copyOf(fresh, BLOCK_SIZE - 1));
+
+        DownloadJournal journal = DownloadJournal.open(tmp.resolve("j"), "https://example.com/new.zip", fresh.length, "e1", null);
+
+        try (FileChannel target = FileChannel.open(tmp.resolve("new.part"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assertEquals(0L, BlockManifest.parse(manifest(fresh)).seed(source, target, journal));
+        }
+
+        assertEquals(0L, journal.getCommittedBytes());
+    }
+
+    /**
+     * Манифест в том виде, в каком его строит scripts/parse.py.
+     */
+    private static String manifest(byte[] data) throws Exception
+    {
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+
+        for (int offset = 0; offset + BLOCK_SIZE <= data.length; offset += BLOCK_SIZE) {
+            blocks.write(entries(Arrays.copyOfRange(data, offset, offset + BLOCK_SIZE)));
+        }
+
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        return "{\"size\": " + data.length + ", \"block_size\": " + BLOCK_SIZE + ", \"sha256\": \"" + sha256
+                + "\", \"blocks\": \"" + Base64.getEncoder().encodeToString(blocks.toByteArray()) + "\"}";
+    }
+
+    /**
+     * struct.pack(">I", weak_checksum(block)) + sha256(block)[:8]
+     */
+    private static byte[] entries(byte[] block) throws Exception
+    {
+        // b - сумма префиксных сумм, как itertools.accumulate в скрипте
+        long a = 0, b = 0;
+        for (byte x : block)
+        {
+            a += x & 0xFF;
+            b += a;
+        }
+
+        int weak = (int) (((b & 0xFFFF) << 16) | (a & 0xFFFF));
+        byte[] strong = MessageDigest.getInstance("SHA-256").digest(block);
+
+        return ByteBuffer.allocate(12).putInt(weak).put(strong, 0, 8).array();
+    }
+
+    private static byte[] random(int size, long seed)
+    {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,141 @@
+//////////////////////////////////////////////////////
+//// @File service/DownloadJournalTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownloadJournalTest
+{
+    private static final String URL = "https://example.com/vc.zip";
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void mergesOverlappingAndAdjacentRanges()
+    {
+        DownloadJournal journal = journal(100, "e1");
+
+        journal.commit(10, 20);
+        journal.commit(30, 40);
+        journal.commit(15, 30); // склеивает оба соседа
+        journal.commit(40, 45); // встык справа
+
+        assertEquals(35L, journal.getCommittedBytes());
+        assertTrue(journal.missing(10, 45).isEmpty());
+        assertEquals(0L, journal.contiguousPrefix());
+
+        journal.commit(0, 12);
+
+        assertEquals(45L, journal.contiguousPrefix());
+        assertEquals(45L, journal.getCommittedBytes());
+    }
+
+    @Test
+    void reportsMissingGaps()
+    {
+        DownloadJournal journal = journal(100, "e1");
+
+        journal.commit(10, 20);
+        journal.commit(50, 60);
+
+        List<long[]> gaps = journal.missing(0, 100);
+        assertEquals(3, gaps.size());
+        assertArrayEquals(new long[]{0, 10}, gaps.get(0));
+        assertArrayEquals(new long[]{20, 50}, gaps.get(1));
+        assertArrayEquals(new long[]{60, 100}, gaps.get(2));
+
+        // окно, начинающееся внутри записанного диапазона
+        gaps = journal.missing(15, 55);
+        assertEquals(1, gaps.size());
+        assertArrayEquals(new long[]{20, 50}, gaps.get(0));
+    }
+
+    @Test
+    void clampsToFileSize()
+    {
+        DownloadJournal journal = journal(100, "e1");
+
+        journal.commit(-5, 10);
+        journal.commit(90, 150);
+        journal.commit(200, 300);
+        assertEquals(20L, journal.getCommittedBytes());
+        assertFalse(journal.isComplete());
+
+        journal.commit(10, 90);
+        assertTrue(journal.isComplete());
+        assertEquals(100L, journal.contiguousPrefix());
+    }
+
+    @Test
+    void restoresRangesOnlyForSameFile() throws IOException
+    {
+        Path file = tmp.resolve("vc.zip.journal");
+        Path data = tmp.resolve("vc.zip.part");
+
+        DownloadJournal journal = DownloadJournal.open(file, URL, 100, "e1", null);
+        journal.commit(0, 30);
+        journal.commit(60, 70);
+
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            journal.checkpoint(channel);
+        }
+
+        DownloadJournal same = DownloadJournal.open(file, URL, 100, "e1", null);
+        assertEquals(40L, same.getCommittedBytes());
+        assertEquals(30L, same.contiguousPrefix());
+
+        // файл на сервере сменился - старые диапазоны не годятся
+        assertEquals(0L, DownloadJournal.open(file, URL, 100, "e2", null).getCommittedBytes());
+        assertEquals(0L, DownloadJournal.open(file, URL, 101, "e1", null).getCommittedBytes());
+        assertEquals(0L, DownloadJournal.open(file, URL + "?x", 100, "e1", null).getCommittedBytes());
+    }
+
+    @Test
+    void fallsBackToLastModifiedWithoutEtag() throws IOException
+    {
+        Path file = tmp.resolve("vc.zip.journal");
+        String date = "Sun, 18 Oct 2026 10:00:00 GMT";
+
+        DownloadJournal journal = DownloadJournal.open(file, URL, 100, null, date);
+        journal.commit(0, 50);
+
+        try (FileChannel channel = FileChannel.open(tmp.resolve("vc.zip.part"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            journal.checkpoint(channel);
+        }
+
+        assertEquals(50L, DownloadJournal.open(file, URL, 100, null, date).getCommittedBytes());
+        assertEquals(0L, DownloadJournal.open(file, URL, 100, null, "Mon, 19 Oct 2026 10:00:00 GMT").getCommittedBytes());
+    }
+
+    @Test
+    void ignoresCorruptJournal() throws IOException
+    {
+        Path file = tmp.resolve("vc.zip.journal");
+        Files.writeString(file, "{\"url\": \"" + URL + "\", \"size\": 100, \"ranges\": [[0, ");
+
+        DownloadJournal journal = DownloadJournal.open(file, URL, 100, null, null);
+        assertEquals(0L, journal.getCommittedBytes());
+    }
+
+    private DownloadJournal journal(long size, String etag) {
+        return DownloadJournal.open(tmp.resolve("j.json"), URL, size, etag, null);
+    }
+}
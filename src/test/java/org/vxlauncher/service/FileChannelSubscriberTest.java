@@ -0,0 +1,155 @@
+//////////////////////////////////////////////////////
+//// @File service/FileChannelSubscriberTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileChannelSubscriberTest
+{
+    @TempDir
+    Path tmp;
+
+    @Test
+    void writesAtPositionAndRequestsOneByOne() throws Exception
+    {
+        Path file = tmp.resolve("a.part");
+        List<long[]> written = new ArrayList<>();
+
+        try (FileChannel channel = open(file))
+        {
+            FileChannelSubscriber subscriber = new FileChannelSubscriber(channel, 4, (from, to) -> written.add(new long[]{from, to}));
+            Subscription subscription = new Subscription();
+
+            subscriber.onSubscribe(subscription);
+            assertEquals(1, subscription.requested);
+
+            subscriber.onNext(List.of(buffer("ab"), buffer("cd")));
+            assertEquals(2, subscription.requested);
+
+            subscriber.onNext(List.of(buffer("ef")));
+            subscriber.onComplete();
+
+            subscriber.getBody().toCompletableFuture().get();
+            assertEquals(10L, subscriber.getPosition());
+        }
+
+        assertEquals(3, written.size());
+        assertArrayEquals(new long[]{4, 6}, written.get(0));
+        assertArrayEquals(new long[]{8, 10}, written.get(2));
+        assertArrayEquals(bytes("\0\0\0\0abcdef"), Files.readAllBytes(file));
+    }
+
+    @Test
+    void stopsAtLimit() throws Exception
+    {
+        Path file = tmp.resolve("b.part");
+        List<String> calls = new ArrayList<>();
+
+        FileChannelSubscriber.Listener listener = new FileChannelSubscriber.Listener()
+        {
+            @Override
+            public long limit(long position, long n) {
+                return Math.min(n, 5 - position);
+            }
+
+            @Override
+            public void written(long from, long to) {
+                calls.add("written " + from + "-" + to);
+            }
+
+            @Override
+            public void finished() {
+                calls.add("finished");
+            }
+        };
+
+        try (FileChannel channel = open(file))
+        {
+            FileChannelSubscriber subscriber = new FileChannelSubscriber(channel, 0, listener);
+            Subscription subscription = new Subscription();
+
+            subscriber.onSubscribe(subscription);
+            subscriber.onNext(List.of(buffer("abc"), buffer("defgh"), buffer("ijk")));
+
+            // остаток отброшен, соединение закрыто, тело завершено без ошибки
+            assertTrue(subscription.cancelled);
+            assertEquals(1, subscription.requested);
+            subscriber.getBody().toCompletableFuture().get();
+
+            subscriber.onNext(List.of(buffer("zzz")));
+        }
+
+        assertEquals(List.of("written 0-3", "written 3-5", "finished"), calls);
+        assertArrayEquals(bytes("abcde"), Files.readAllBytes(file));
+    }
+
+    @Test
+    void failsBodyWhenListenerThrows() throws IOException
+    {
+        try (FileChannel channel = open(tmp.resolve("c.part")))
+        {
+            FileChannelSubscriber subscriber = new FileChannelSubscriber(channel, 0, (from, to) -> {
+                throw new IOException("диск полон");
+            });
+            Subscription subscription = new Subscription();
+
+            subscriber.onSubscribe(subscription);
+            subscriber.onNext(List.of(buffer("abc")));
+
+            CompletableFuture<Void> body = subscriber.getBody().toCompletableFuture();
+            assertTrue(subscription.cancelled);
+            assertTrue(body.isCompletedExceptionally());
+            assertFalse(body.isCancelled());
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static ByteBuffer buffer(String s) {
+        return ByteBuffer.wrap(bytes(s));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class Subscription implements Flow.Subscription
+    {
+        long requested;
+        boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
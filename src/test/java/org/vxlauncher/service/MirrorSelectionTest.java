@@ -0,0 +1,53 @@
+//////////////////////////////////////////////////////
+//// @File service/MirrorSelectionTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MirrorSelectionTest
+{
+    private static final List<String> URLS = List.of(
+            "https://github.com/a/vc.zip",
+            "https://mirror1.example.com/vc.zip",
+            "https://mirror2.example.com/vc.zip");
+
+    @Test
+    void usesAllMirrorsWhenHashIsKnown()
+    {
+        assertEquals(URLS, DownloadService.verifiable(URLS, "ab12", null));
+    }
+
+    @Test
+    void usesOnlyPrimaryWithoutHash()
+    {
+        // куски с разных хостов нечем сверить - качаем только с основного адреса
+        assertEquals(URLS.subList(0, 1), DownloadService.verifiable(URLS, null, null));
+        assertEquals(URLS.subList(0, 1), DownloadService.verifiable(URLS, "", null));
+    }
+
+    @Test
+    void takesHashFromBlockManifest() throws IOException
+    {
+        BlockManifest manifest = BlockManifest.parse("{\"size\": 0, \"block_size\": 16384, \"sha256\": \"ab12\", \"blocks\": \"\"}");
+        BlockManifest unhashed = BlockManifest.parse("{\"size\": 0, \"block_size\": 16384, \"blocks\": \"\"}");
+
+        assertEquals(URLS, DownloadService.verifiable(URLS, null, manifest));
+        assertEquals(URLS.subList(0, 1), DownloadService.verifiable(URLS, null, unhashed));
+    }
+
+    @Test
+    void keepsSingleUrl()
+    {
+        List<String> single = URLS.subList(0, 1);
+        assertEquals(single, DownloadService.verifiable(single, null, null));
+    }
+}
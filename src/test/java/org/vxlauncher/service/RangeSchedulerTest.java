@@ -0,0 +1,170 @@
+//////////////////////////////////////////////////////
+//// @File service/RangeSchedulerTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeSchedulerTest
+{
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+
+    @Test
+    void splitsRangesIntoUnits()
+    {
+        RangeScheduler scheduler = new RangeScheduler(List.of(new long[]{0, 10 * MB}));
+        List<RangeScheduler.Segment> segments = drain(scheduler);
+
+        assertEquals(3, segments.size());
+        assertSegment(segments.get(0), 0, 4 * MB);
+        assertSegment(segments.get(1), 4 * MB, 8 * MB);
+        assertSegment(segments.get(2), 8 * MB, 10 * MB);
+        assertEquals(3, scheduler.getTargetConnections());
+    }
+
+    @Test
+    void mergesSmallGaps()
+    {
+        RangeScheduler scheduler = new RangeScheduler(List.of(
+                new long[]{0, 100 * KB},
+                new long[]{164 * KB, 200 * KB}, // дыра ровно 64 KB - перекачиваем
+                new long[]{1 * MB, 2 * MB}));
+        List<RangeScheduler.Segment> segments = drain(scheduler);
+
+        assertEquals(2, segments.size());
+        assertSegment(segments.get(0), 0, 200 * KB);
+        assertSegment(segments.get(1), 1 * MB, 2 * MB);
+    }
+
+    @Test
+    void stealsTailOfSlowestSegment()
+    {
+        RangeScheduler scheduler = new RangeScheduler(List.of(new long[]{0, 12 * MB}));
+        RangeScheduler.Segment a = open(scheduler);
+        RangeScheduler.Segment b = open(scheduler);
+        RangeScheduler.Segment c = open(scheduler);
+
+        advance(a, 3 * MB + 512 * KB);
+        advance(b, 1 * MB);
+        advance(c, 4 * MB);
+        assertTrue(c.isDone());
+        scheduler.finished(c);
+
+        // у b дольше всего осталось - забираем вторую половину его остатка
+        RangeScheduler.Segment tail = scheduler.next();
+        assertNotNull(tail);
+        assertSegment(tail, 6 * MB + 512 * KB, 8 * MB);
+        assertEquals(6 * MB + 512 * KB, b.getEnd());
+        assertEquals(4 * MB, a.getEnd());
+    }
+
+    @Test
+    void doesNotStealSmallRemainders()
+    {
+        RangeScheduler scheduler = new RangeScheduler(List.of(new long[]{0, 8 * MB}));
+        RangeScheduler.Segment a = open(scheduler);
+        RangeScheduler.Segment b = open(scheduler);
+
+        advance(a, 3 * MB + 512 * KB);
+        advance(b, 4 * MB);
+        scheduler.finished(b);
+
+        // у a осталось 512 KB: делить такой хвост дороже, чем дождаться
+        assertNull(scheduler.next());
+        assertFalse(scheduler.isFinished());
+
+        advance(a, 512 * KB);
+        scheduler.finished(a);
+        assertNull(scheduler.next());
+        assertTrue(scheduler.isFinished());
+    }
+
+    @Test
+    void abortTruncatesActiveSegments()
+    {
+        RangeScheduler scheduler = new RangeScheduler(List.of(new long[]{0, 8 * MB}));
+        RangeScheduler.Segment a = open(scheduler);
+
+        assertEquals(1024, a.reserve(1024));
+        scheduler.abort();
+
+        assertEquals(0, a.reserve(1024));
+        assertEquals(1024L, a.getEnd());
+        assertTrue(scheduler.isAborted());
+        assertEquals(0, scheduler.connectionsToAdd());
+
+        scheduler.connectionOpened();
+        assertNull(scheduler.next());
+    }
+
+    @Test
+    void rewindDropsUncommittedReserve()
+    {
+        RangeScheduler.Segment segment = new RangeScheduler.Segment(100, 200);
+
+        assertEquals(60, segment.reserve(60));
+        segment.commit(130);
+        assertEquals(130L, segment.rewind());
+        assertEquals(70, segment.reserve(1000));
+        assertEquals(0, segment.reserve(1));
+
+        segment.commit(200);
+        assertTrue(segment.isDone());
+    }
+
+    private static RangeScheduler.Segment open(RangeScheduler scheduler)
+    {
+        scheduler.connectionOpened();
+        RangeScheduler.Segment segment = scheduler.next();
+        assertNotNull(segment);
+        return segment;
+    }
+
+    /**
+     * Эмулирует запись n байт соединением.
+     */
+    private static void advance(RangeScheduler.Segment segment, long n)
+    {
+        long written = segment.reserve((int) n);
+        assertEquals(n, written);
+        segment.commit(segment.getCommitted() + written);
+    }
+
+    private static List<RangeScheduler.Segment> drain(RangeScheduler scheduler)
+    {
+        List<RangeScheduler.Segment> segments = new ArrayList<>();
+        RangeScheduler.Segment segment;
+
+        // одно соединение выбирает всю очередь по порядку
+        scheduler.connectionOpened();
+
+        while ((segment = scheduler.next()) != null)
+        {
+            segments.add(segment);
+            advance(segment, segment.getEnd() - segment.getStart());
+            scheduler.finished(segment);
+        }
+
+        assertTrue(scheduler.isFinished());
+        return segments;
+    }
+
+    private static void assertSegment(RangeScheduler.Segment segment, long start, long end)
+    {
+        assertEquals(start, segment.getStart());
+        assertEquals(end, segment.getEnd());
+    }
+}
@@ -0,0 +1,135 @@
+//////////////////////////////////////////////////////
+//// @File service/ReleaseIndexTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vxlauncher.model.ReleaseInfo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReleaseIndexTest
+{
+    @TempDir
+    Path tmp;
+
+    @Test
+    void roundTripsReleases() throws IOException
+    {
+        Path file = tmp.resolve("releases_windows.idx");
+        Map<String, ReleaseInfo> releases = releases();
+
+        ReleaseIndex.write(file, releases);
+        Map<String, ReleaseInfo> read = ReleaseIndex.read(file);
+
+        assertEquals(List.copyOf(releases.keySet()), List.copyOf(read.keySet()));
+
+        for (ReleaseInfo expected : releases.values())
+        {
+            ReleaseInfo actual = read.get(expected.getVersion());
+            assertEquals(expected.getDownloadUrl(), actual.getDownloadUrl());
+            assertEquals(expected.getSha256(), actual.getSha256());
+            assertEquals(expected.getSize(), actual.getSize());
+            assertEquals(expected.getFileName(), actual.getFileName());
+            assertEquals(expected.getMirrorUrls(), actual.getMirrorUrls());
+            assertEquals(expected.getBlockManifestUrl(), actual.getBlockManifestUrl());
+        }
+
+        assertTrue(Files.notExists(tmp.resolve("releases_windows.idx.tmp")));
+    }
+
+    @Test
+    void roundTripsEmptyList() throws IOException
+    {
+        Path file = tmp.resolve("empty.idx");
+        ReleaseIndex.write(file, Map.of());
+
+        assertEquals(Map.of(), ReleaseIndex.read(file));
+    }
+
+    @Test
+    void returnsNullWithoutIndex() {
+        assertNull(ReleaseIndex.read(tmp.resolve("missing.idx")));
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException
+    {
+        Path file = tmp.resolve("releases.idx");
+        ReleaseIndex.write(file, releases());
+        byte[] data = Files.readAllBytes(file);
+
+        // чужой magic
+        byte[] foreign = data.clone();
+        foreign[0] ^= 1;
+        Files.write(file, foreign);
+        assertNull(ReleaseIndex.read(file));
+
+        // другой формат
+        byte[] newer = data.clone();
+        ByteBuffer.wrap(newer).putInt(4, 2);
+        Files.write(file, newer);
+        assertNull(ReleaseIndex.read(file));
+
+        Files.writeString(file, "[{\"tag_name\": \"v0.30.7\"}]");
+        assertNull(ReleaseIndex.read(file));
+    }
+
+    @Test
+    void rejectsTruncatedAndCorruptFiles() throws IOException
+    {
+        Path file = tmp.resolve("releases.idx");
+        ReleaseIndex.write(file, releases());
+        byte[] data = Files.readAllBytes(file);
+
+        // запись оборвалась на середине
+        Files.write(file, Arrays.copyOf(data, data.length - 7));
+        assertNull(ReleaseIndex.read(file));
+
+        Files.write(file, Arrays.copyOf(data, 10));
+        assertNull(ReleaseIndex.read(file));
+
+        // ссылка на строку за пределами таблицы
+        byte[] badRef = data.clone();
+        ByteBuffer.wrap(badRef).putInt(28, 1 << 20);
+        Files.write(file, badRef);
+        assertNull(ReleaseIndex.read(file));
+
+        // зеркала выходят за таблицу ссылок
+        byte[] badMirrors = data.clone();
+        ByteBuffer.wrap(badMirrors).putInt(28 + 32, 100);
+        Files.write(file, badMirrors);
+        assertNull(ReleaseIndex.read(file));
+    }
+
+    private static Map<String, ReleaseInfo> releases()
+    {
+        Map<String, ReleaseInfo> releases = new LinkedHashMap<>();
+
+        releases.put("0.30.7", new ReleaseInfo("0.30.7", "https://x/0.30.7.zip", "", 6535192,
+                "voxelcore-0.30.7_win64.zip", List.of("https://m1/0.30.7.zip", "https://m2/0.30.7.zip"),
+                "https://m1/0.30.7.zip.blocks.json"));
+        releases.put("0.30.6", new ReleaseInfo("0.30.6", "https://x/0.30.6.zip", "", 6480480,
+                "voxelcore-0.30.6_win64.zip", List.of("https://m1/0.30.6.zip"), null));
+        // не-ASCII имя и размер больше 4 GB
+        releases.put("0.29.0", new ReleaseInfo("0.29.0", "https://x/сборка.zip", "ab12", 5_000_000_000L,
+                "сборка_win64.zip", List.of(), null));
+
+        return releases;
+    }
+}
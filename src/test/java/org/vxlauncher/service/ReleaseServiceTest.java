@@ -0,0 +1,106 @@
+//////////////////////////////////////////////////////
+//// @File service/ReleaseServiceTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+import org.vxlauncher.model.OSType;
+import org.vxlauncher.model.ReleaseInfo;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReleaseServiceTest
+{
+    private static final String RELEASES = """
+            [
+              {
+                "url": "https://api.github.com/repos/MihailRis/voxelcore/releases/1",
+                "tag_name": "v0.30.7",
+                "draft": false,
+                "author": {"login": "MihailRis", "id": 1},
+                "assets": [
+                  {"name": "voxelcore-0.30.7_macos.dmg", "browser_download_url": "https://x/0.30.7.dmg", "size": 4627268},
+                  {
+                    "name": "voxelcore-0.30.7_win64.zip",
+                    "uploader": {"login": "MihailRis"},
+                    "browser_download_url": "https://x/0.30.7.zip",
+                    "size": 6535192,
+                    "mirrors": ["https://m1/0.30.7.zip", null, "https://m2/0.30.7.zip"],
+                    "block_manifest": "https://m1/0.30.7.zip.blocks.json"
+                  },
+                  {"name": "voxelcore-0.30.7_win64_debug.zip", "browser_download_url": "https://x/debug.zip", "size": 1}
+                ],
+                "body": "что нового"
+              },
+              {
+                "tag_name": "v0.30.8-rc",
+                "draft": true,
+                "assets": [{"name": "voxelcore-0.30.8_win64.zip", "browser_download_url": "https://x/0.30.8.zip", "size": 1}]
+              },
+              {
+                "tag_name": "0.29.0",
+                "draft": null,
+                "assets": [{"name": "voxelcore-0.29.0_win64.zip", "browser_download_url": "https://x/0.29.0.zip", "size": "large"}]
+              },
+              {
+                "tag_name": "v0.28.0",
+                "assets": [{"name": "voxelcore-0.28.0_x86-64.AppImage", "browser_download_url": "https://x/0.28.0.AppImage", "size": 2}]
+              },
+              {
+                "tag_name": "v0.27.0",
+                "assets": null
+              }
+            ]
+            """;
+
+    @Test
+    void picksFirstAssetForPlatform() throws IOException
+    {
+        Map<String, ReleaseInfo> releases = new ReleaseService(OSType.WINDOWS).parseGitHubReleases(new StringReader(RELEASES));
+
+        assertEquals(List.of("0.30.7", "0.29.0"), List.copyOf(releases.keySet()));
+
+        ReleaseInfo info = releases.get("0.30.7");
+        assertEquals("voxelcore-0.30.7_win64.zip", info.getFileName());
+        assertEquals("https://x/0.30.7.zip", info.getDownloadUrl());
+        assertEquals(6535192L, info.getSize());
+        assertEquals(List.of("https://m1/0.30.7.zip", "https://m2/0.30.7.zip"), info.getMirrorUrls());
+        assertEquals("https://m1/0.30.7.zip.blocks.json", info.getBlockManifestUrl());
+
+        // поле не того типа не роняет разбор
+        assertEquals(0L, releases.get("0.29.0").getSize());
+        assertTrue(releases.get("0.29.0").getMirrorUrls().isEmpty());
+        assertNull(releases.get("0.29.0").getBlockManifestUrl());
+    }
+
+    @Test
+    void filtersByPlatform() throws IOException
+    {
+        Map<String, ReleaseInfo> linux = new ReleaseService(OSType.LINUX).parseGitHubReleases(new StringReader(RELEASES));
+        Map<String, ReleaseInfo> macos = new ReleaseService(OSType.MACOS).parseGitHubReleases(new StringReader(RELEASES));
+
+        assertEquals(List.of("0.28.0"), List.copyOf(linux.keySet()));
+        assertEquals(List.of("0.30.7"), List.copyOf(macos.keySet()));
+        assertEquals("https://x/0.30.7.dmg", macos.get("0.30.7").getDownloadUrl());
+    }
+
+    @Test
+    void rejectsTruncatedDocument()
+    {
+        String truncated = RELEASES.substring(0, RELEASES.indexOf("\"v0.30.8-rc\""));
+
+        assertThrows(IOException.class, () ->
+                new ReleaseService(OSType.WINDOWS).parseGitHubReleases(new StringReader(truncated)));
+    }
+}
@@ -0,0 +1,128 @@
+//////////////////////////////////////////////////////
+//// @File service/RetryPolicyTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest
+{
+    private static final int SAMPLES = 2000;
+
+    @Test
+    void jitterStaysWithinExponentialCeiling()
+    {
+        RetryPolicy policy = new RetryPolicy(10, 100, 1000, 5000);
+        IOException cause = new IOException("reset");
+
+        long[] ceilings = {100, 200, 400, 800, 1000, 1000};
+
+        for (int attempt = 0; attempt < ceilings.length; attempt++)
+        {
+            long max = 0;
+
+            for (int i = 0; i < SAMPLES; i++)
+            {
+                long delay = policy.delayMillis(attempt, cause);
+                assertTrue(delay >= 0 && delay <= ceilings[attempt], "attempt " + attempt + ": " + delay);
+                max = Math.max(max, delay);
+            }
+
+            // полный jitter: значения расходятся по всему интервалу, а не липнут к нулю
+            assertTrue(max > ceilings[attempt] / 2, "attempt " + attempt + ": max " + max);
+        }
+    }
+
+    @Test
+    void stopsAfterMaxAttempts()
+    {
+        RetryPolicy policy = new RetryPolicy(3, 100, 1000, 5000);
+        IOException cause = new IOException("reset");
+
+        assertTrue(policy.delayMillis(1, cause) >= 0);
+        assertEquals(-1L, policy.delayMillis(2, cause));
+    }
+
+    @Test
+    void doesNotRetryPermanentErrors()
+    {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000, 5000);
+
+        assertEquals(-1L, policy.delayMillis(0, new HttpStatusException(404, null)));
+        assertEquals(-1L, policy.delayMillis(0, new HttpStatusException(501, null)));
+        assertEquals(-1L, policy.delayMillis(0, new CancellationException()));
+        assertEquals(-1L, policy.delayMillis(0, new IllegalStateException()));
+        assertEquals(-1L, policy.delayMillis(0, new CircuitBreaker.OpenException("example.com")));
+
+        assertTrue(policy.delayMillis(0, new HttpStatusException(503, null)) >= 0);
+        assertTrue(policy.delayMillis(0, new CircuitBreaker.OpenException("example.com", true)) >= 0);
+    }
+
+    @Test
+    void honoursRetryAfter()
+    {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000, 5000);
+
+        assertEquals(3000L, policy.delayMillis(0, new HttpStatusException(429, Duration.ofSeconds(3))));
+        // ждать дольше разумного не будем - ошибка уходит наверх
+        assertEquals(-1L, policy.delayMillis(0, new HttpStatusException(503, Duration.ofSeconds(6))));
+    }
+
+    @Test
+    void unwrapsCompletionWrappers()
+    {
+        IOException cause = new IOException("reset");
+
+        assertEquals(cause, RetryPolicy.unwrap(new CompletionException(new ExecutionException(cause))));
+        assertTrue(RetryPolicy.isRetryable(RetryPolicy.unwrap(new CompletionException(cause))));
+    }
+
+    @Test
+    void retriesUntilSuccess() throws Exception
+    {
+        RetryPolicy policy = new RetryPolicy(5, 1, 1, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.run(() -> calls.incrementAndGet() < 3
+                ? CompletableFuture.<String>failedFuture(new IOException("reset"))
+                : CompletableFuture.completedFuture("ok")).get(5, TimeUnit.SECONDS);
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void givesUpOnPermanentError()
+    {
+        RetryPolicy policy = new RetryPolicy(5, 1, 1, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> future = policy.run(() ->
+        {
+            calls.incrementAndGet();
+            throw new HttpStatusException(404, null);
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof HttpStatusException);
+        assertEquals(1, calls.get());
+        assertFalse(future.isCancelled());
+    }
+}
@@ -0,0 +1,144 @@
+//////////////////////////////////////////////////////
+//// @File service/ZipExtractorTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZipExtractorTest
+{
+    @TempDir
+    Path tmp;
+
+    @Test
+    void resolvesNamesInsideRoot() throws IOException
+    {
+        Path root = tmp.resolve("dest").toAbsolutePath().normalize();
+
+        assertEquals(root.resolve("lib/a.dll"), ZipExtractor.resolve(root, "lib/a.dll"));
+        assertEquals(root.resolve("b.txt"), ZipExtractor.resolve(root, "lib/../b.txt"));
+    }
+
+    @Test
+    void rejectsParentTraversal() throws IOException
+    {
+        Path root = tmp.resolve("dest").toAbsolutePath().normalize();
+
+        assertThrows(IOException.class, () -> ZipExtractor.resolve(root, "../evil.txt"));
+        assertThrows(IOException.class, () -> ZipExtractor.resolve(root, "lib/../../evil.txt"));
+
+        Path zip = zip(Map.of("ok.txt", bytes("ok"), "../evil.txt", bytes("evil")));
+
+        assertThrows(IOException.class, () -> ZipExtractor.extract(zip, root));
+        assertFalse(Files.exists(tmp.resolve("evil.txt")));
+    }
+
+    @Test
+    void rejectsAbsoluteNames() throws IOException
+    {
+        Path root = tmp.resolve("dest").toAbsolutePath().normalize();
+        String outside = tmp.resolve("evil.txt").toAbsolutePath().toString();
+
+        assertThrows(IOException.class, () -> ZipExtractor.resolve(root, outside));
+
+        Path zip = zip(Map.of(outside, bytes("evil")));
+
+        assertThrows(IOException.class, () -> ZipExtractor.extract(zip, root));
+        assertFalse(Files.exists(tmp.resolve("evil.txt")));
+    }
+
+    @Test
+    void resumesFromCheckpoint() throws IOException
+    {
+        Path root = tmp.resolve("dest");
+        Path checkpoint = tmp.resolve(".unzip.log");
+        Path zip = zip(Map.of("a.bin", bytes("first"), "dir/b.bin", bytes("second")));
+
+        ZipExtractor.extract(zip, root, checkpoint);
+
+        List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+
+        // готовая запись не переписывается, пропавшая распаковывается заново
+        Files.write(root.resolve("a.bin"), bytes("FIRST"));
+        Files.delete(root.resolve("dir/b.bin"));
+
+        ZipExtractor.extract(zip, root, checkpoint);
+
+        assertArrayEquals(bytes("FIRST"), Files.readAllBytes(root.resolve("a.bin")));
+        assertArrayEquals(bytes("second"), Files.readAllBytes(root.resolve("dir/b.bin")));
+    }
+
+    @Test
+    void ignoresTornCheckpointLine() throws IOException
+    {
+        Path root = tmp.resolve("dest");
+        Path checkpoint = tmp.resolve(".unzip.log");
+        Path zip = zip(Map.of("a.bin", bytes("first"), "b.bin", bytes("second")));
+
+        ZipExtractor.extract(zip, root, checkpoint);
+
+        // сбой посреди записи последней строки
+        List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+        String kept = lines.get(0);
+        String torn = lines.get(1);
+        Files.writeString(checkpoint, kept + "\n" + torn.substring(0, torn.length() - 2), StandardCharsets.UTF_8);
+
+        Path tornFile = root.resolve(torn.substring(torn.lastIndexOf(' ') + 1));
+        byte[] expected = Files.readAllBytes(tornFile);
+        Files.write(tornFile, new byte[expected.length]);
+
+        // первое продолжение: запись с оборванной строкой распаковывается заново
+        ZipExtractor.extract(zip, root, checkpoint);
+
+        assertArrayEquals(expected, Files.readAllBytes(tornFile));
+        assertEquals(List.of(kept, torn), Files.readAllLines(checkpoint, StandardCharsets.UTF_8));
+
+        // второе: новая строка не приклеилась к обрывку, запись считается готовой
+        Files.write(tornFile, new byte[expected.length]);
+        ZipExtractor.extract(zip, root, checkpoint);
+
+        assertArrayEquals(new byte[expected.length], Files.readAllBytes(tornFile));
+    }
+
+    private Path zip(Map<String, byte[]> entries) throws IOException
+    {
+        Path zip = Files.createTempFile(tmp, "test", ".zip");
+
+        try (OutputStream out = Files.newOutputStream(zip);
+             ZipOutputStream stream = new ZipOutputStream(out))
+        {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet())
+            {
+                stream.putNextEntry(new ZipEntry(entry.getKey()));
+                stream.write(entry.getValue());
+                stream.closeEntry();
+            }
+        }
+
+        return zip;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+//////////////////////////////////////////////////////
+//// @File service/ZipExtractorThroughputTest.java
+//// @Author 0xcds4r
+//// @Date 18 Oct. 2026
+//////////////////////////////////////////////////////
+
+package org.vxlauncher.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Замер распаковки архива из множества файлов: прежний последовательный ZipInputStream
+ * против ZipExtractor. Не входит в обычный прогон - только gradle throughputTest.
+ */
+@Tag("throughput")
+class ZipExtractorThroughputTest
+{
+    private static final int ENTRIES = 4000;
+    private static final int ENTRY_SIZE = 64 * 1024;
+    private static final int RUNS = 3;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void comparesWithStreamExtraction() throws IOException
+    {
+        Path zip = tmp.resolve("many.zip");
+        generate(zip);
+
+        long total = (long) ENTRIES * ENTRY_SIZE;
+        long stream = Long.MAX_VALUE;
+        long parallel = Long.MAX_VALUE;
+
+        // лучший из нескольких прогонов, первый заодно прогревает JIT и кеш ФС
+        for (int run = 0; run < RUNS; run++)
+        {
+            Path streamDir = tmp.resolve("stream" + run);
+            long started = System.nanoTime();
+            streamUnzip(zip, streamDir);
+            stream = Math.min(stream, System.nanoTime() - started);
+
+            Path parallelDir = tmp.resolve("parallel" + run);
+            started = System.nanoTime();
+            ZipExtractor.extract(zip, parallelDir);
+            parallel = Math.min(parallel, System.nanoTime() - started);
+
+            assertArrayEquals(Files.readAllBytes(streamDir.resolve("d27/f77.bin")),
+                    Files.readAllBytes(parallelDir.resolve("d27/f77.bin")));
+        }
+
+        System.out.printf("--> %d записей, %d MB, ядер: %d%n", ENTRIES, total >> 20, Runtime.getRuntime().availableProcessors());
+        System.out.printf("--> ZipInputStream: %d мс, %.0f MB/s%n", stream / 1_000_000, total / 1048576.0 / (stream / 1e9));
+        System.out.printf("--> ZipExtractor:   %d мс, %.0f MB/s, x%.2f%n", parallel / 1_000_000,
+                total / 1048576.0 / (parallel / 1e9), (double) stream / parallel);
+    }
+
+    /**
+     * Сжимаемые данные, похожие на ресурсы игры: случайные байты из небольшого алфавита.
+     */
+    private static void generate(Path zip) throws IOException
+    {
+        Random random = new Random(42);
+        byte[] data = new byte[ENTRY_SIZE];
+
+        try (OutputStream out = Files.newOutputStream(zip);
+             ZipOutputStream stream = new ZipOutputStream(out))
+        {
+            for (int i = 0; i < ENTRIES; i++)
+            {
+                for (int b = 0; b < data.length; b++) {
+                    data[b] = (byte) ('a' + random.nextInt(16));
+                }
+
+                stream.putNextEntry(new ZipEntry("d" + i % 50 + "/f" + i + ".bin"));
+                stream.write(data);
+                stream.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Распаковка, как она была до ZipExtractor: один поток, записи по порядку.
+     */
+    private static void streamUnzip(Path zip, Path dest) throws IOException
+    {
+        try (InputStream in = Files.newInputStream(zip);
+             ZipInputStream zis = new ZipInputStream(in))
+        {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null)
+            {
+                Path target = dest.resolve(entry.getName());
+
+                if (entry.isDirectory())
+                {
+                    Files.createDirectories(target);
+                }
+                else
+                {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(zis, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                zis.closeEntry();
+            }
+        }
+    }
+}